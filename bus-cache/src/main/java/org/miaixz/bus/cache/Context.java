@@ -49,6 +49,10 @@ public class Context {
      * 是否开启缓存防击穿
      */
     private Switch prevent;
+    /**
+     * 是否逐次打印命中日志(默认关闭, 命中率请通过{@link Hitting}获取)
+     */
+    private Switch hitLog;
 
     public static Context newConfig(Map<String, CacheX> caches) {
         Context config = new Context();
@@ -56,6 +60,7 @@ public class Context {
         config.cache = Switch.ON;
         config.prevent = Switch.OFF;
         config.hitting = null;
+        config.hitLog = Switch.OFF;
         return config;
     }
 
@@ -63,6 +68,10 @@ public class Context {
         return null != prevent && prevent == Switch.ON;
     }
 
+    public boolean isHitLogOn() {
+        return null != hitLog && hitLog == Switch.ON;
+    }
+
     public Map<String, CacheX> getCaches() {
         return caches;
     }
@@ -95,6 +104,14 @@ public class Context {
         this.prevent = prevent;
     }
 
+    public Switch getHitLog() {
+        return hitLog;
+    }
+
+    public void setHitLog(Switch hitLog) {
+        this.hitLog = hitLog;
+    }
+
     /**
      * 开关
      */
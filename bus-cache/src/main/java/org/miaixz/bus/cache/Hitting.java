@@ -43,6 +43,15 @@ public interface Hitting {
 
     Map<String, HittingDO> getHitting();
 
+    /**
+     * 本节点内存中的命中率计数, 不访问后端存储, 适合被监控系统高频拉取
+     *
+     * @return 分组 -> 命中率
+     */
+    default Map<String, HittingDO> snapshot() {
+        return getHitting();
+    }
+
     void reset(String pattern);
 
     void resetAll();
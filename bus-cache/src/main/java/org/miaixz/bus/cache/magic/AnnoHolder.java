@@ -50,9 +50,17 @@ public class AnnoHolder {
 
     private String id;
 
+    // 合并并发回源
+    private boolean coalesce;
+    private long coalesceTimeout;
+
+    // 提前刷新
+    private float refreshAhead;
+
     private AnnoHolder(Method method,
                        String cache, String prefix, int expire,
-                       Map<Integer, CacheKey> cacheKeyMap, int multiIndex, String id) {
+                       Map<Integer, CacheKey> cacheKeyMap, int multiIndex, String id,
+                       boolean coalesce, long coalesceTimeout, float refreshAhead) {
         this.method = method;
         this.cache = cache;
         this.prefix = prefix;
@@ -60,6 +68,9 @@ public class AnnoHolder {
         this.cacheKeyMap = cacheKeyMap;
         this.multiIndex = multiIndex;
         this.id = id;
+        this.coalesce = coalesce;
+        this.coalesceTimeout = coalesceTimeout;
+        this.refreshAhead = refreshAhead;
     }
 
     public Method getMethod() {
@@ -94,6 +105,22 @@ public class AnnoHolder {
         return id;
     }
 
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public long getCoalesceTimeout() {
+        return coalesceTimeout;
+    }
+
+    public float getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public boolean isRefreshAhead() {
+        return refreshAhead > 0 && refreshAhead < 1 && expire > CacheExpire.FOREVER;
+    }
+
     public static class Builder {
 
         private Method method;
@@ -110,6 +137,12 @@ public class AnnoHolder {
 
         private String id;
 
+        private boolean coalesce;
+
+        private long coalesceTimeout;
+
+        private float refreshAhead;
+
         private Builder(Method method) {
             this.method = method;
         }
@@ -143,13 +176,28 @@ public class AnnoHolder {
             return this;
         }
 
+        public Builder setCoalesce(boolean coalesce) {
+            this.coalesce = coalesce;
+            return this;
+        }
+
+        public Builder setCoalesceTimeout(long coalesceTimeout) {
+            this.coalesceTimeout = coalesceTimeout;
+            return this;
+        }
+
+        public Builder setRefreshAhead(float refreshAhead) {
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
         public Builder setCacheKeyMap(Map<Integer, CacheKey> cacheKeyMap) {
             this.cacheKeyMap = cacheKeyMap;
             return this;
         }
 
         public AnnoHolder build() {
-            return new AnnoHolder(method, cache, prefix, expire, cacheKeyMap, multiIndex, id);
+            return new AnnoHolder(method, cache, prefix, expire, cacheKeyMap, multiIndex, id, coalesce, coalesceTimeout, refreshAhead);
         }
     }
 
@@ -53,6 +53,9 @@ public class MultiCacheReader extends AbstractReader {
     @Inject(optional = true)
     private Hitting baseHitting;
 
+    @Inject
+    private SingleFlight singleFlight;
+
     private static Map mergeMap(Class<?> resultMapType,
                                 Map proceedEntryValueMap,
                                 Map<String, Object> key2MultiEntry,
@@ -152,6 +155,15 @@ public class MultiCacheReader extends AbstractReader {
         Set<String> missKeys = cacheKeys.getMissKeySet();
         Map<String, Object> hitKeyValueMap = cacheKeys.getHitKeyMap();
 
+        if (annoHolder.isCoalesce()) {
+            // 按key合并回源: 其它调用正在回源的key直接等待, 只有剩余的key由当前调用回源并写入缓存
+            Map<String, Object> loadedKeyValueMap = singleFlight.executeAll(annoHolder.getCache(), missKeys, annoHolder.getCoalesceTimeout(),
+                    keys -> loadMissKeys(baseInvoker, annoHolder, methodHolder, multiEntry2Key, key2MultiEntry, keys, needWrite));
+            Map<String, Object> keyValueMap = new LinkedHashMap<>(loadedKeyValueMap);
+            keyValueMap.putAll(hitKeyValueMap);
+            return handleFullHit(baseInvoker, keyValueMap, methodHolder, key2MultiEntry);
+        }
+
         // 用未命中的keys调用方法
         Object[] missArgs = toMissArgs(missKeys, key2MultiEntry, baseInvoker.getArguments(), annoHolder.getMultiIndex());
         Object proceed = doLogInvoke(() -> baseInvoker.proceed(missArgs));
@@ -192,6 +204,33 @@ public class MultiCacheReader extends AbstractReader {
         return result;
     }
 
+    private Map<String, Object> loadMissKeys(ProxyChain baseInvoker, AnnoHolder annoHolder, MethodHolder methodHolder,
+                                             Map<Object, String> multiEntry2Key, Map<String, Object> key2MultiEntry,
+                                             Set<String> missKeys, boolean needWrite) throws Throwable {
+
+        // 等待超时后可能再次回源, 在参数副本上替换为未命中的keys
+        Object[] missArgs = toMissArgs(missKeys, key2MultiEntry, baseInvoker.getArguments().clone(), annoHolder.getMultiIndex());
+        Object proceed = doLogInvoke(() -> baseInvoker.proceed(missArgs));
+        if (null == proceed) {
+            return Collections.emptyMap();
+        }
+
+        Class<?> returnType = proceed.getClass();
+        methodHolder.setReturnType(returnType);
+        Map<String, Object> keyValueMap;
+        if (Map.class.isAssignableFrom(returnType)) {
+            keyValueMap = KeyValue.mapToKeyValue((Map) proceed, missKeys, multiEntry2Key, config.getPrevent());
+        } else {
+            keyValueMap = KeyValue.collectionToKeyValue(asCollection(proceed, returnType), annoHolder.getId(), missKeys, multiEntry2Key, config.getPrevent());
+        }
+
+        // 为了兼容@CachedGet注解, 客户端缓存
+        if (needWrite) {
+            cacheManager.writeBatch(annoHolder.getCache(), keyValueMap, annoHolder.getExpire());
+        }
+        return keyValueMap;
+    }
+
     private Object asType(Collection collection, Class<?> returnType) {
         if (Collection.class.isAssignableFrom(returnType)) {
             return collection;
@@ -255,8 +294,10 @@ public class MultiCacheReader extends AbstractReader {
         // 计数
         int hitCount = cacheKeys.getHitKeyMap().size();
         int totalCount = hitCount + missKeys.size();
-        Logger.info("multi cache hit rate: {}/{}, missed keys: {}",
-                hitCount, totalCount, missKeys);
+        if (config.isHitLogOn()) {
+            Logger.info("multi cache hit rate: {}/{}, missed keys: {}",
+                    hitCount, totalCount, missKeys);
+        }
 
         if (null != this.baseHitting) {
             // 分组模板
@@ -0,0 +1,106 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.cache.magic;
+
+import org.miaixz.bus.cache.magic.AbstractReader.ThrowableSupplier;
+import org.miaixz.bus.core.annotation.Singleton;
+import org.miaixz.bus.logger.Logger;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 提前刷新: 在有界线程池中异步重新执行方法并回写缓存, 同一个key同时只有一个刷新任务
+ * 线程池队列已满时放弃本次刷新, 条目到期后由正常的回源流程兜底
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+@Singleton
+public class Refresher {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder refreshCount = new LongAdder();
+
+    private final LongAdder rejectCount = new LongAdder();
+
+    private final ThreadPoolExecutor executor;
+
+    public Refresher() {
+        AtomicInteger number = new AtomicInteger(1);
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("cache:refresher-" + number.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 提交刷新任务
+     *
+     * @param key    缓存key
+     * @param loader 重新执行方法并回写缓存
+     */
+    void refresh(String key, ThrowableSupplier<Object> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    loader.get();
+                    refreshCount.increment();
+                } catch (Throwable e) {
+                    Logger.warn(e, "refresh ahead failed, key: {}", key);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            rejectCount.increment();
+            Logger.debug("refresh ahead rejected, key: {}", key);
+        }
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    public long getRejectCount() {
+        return rejectCount.sum();
+    }
+
+}
@@ -33,9 +33,12 @@ import org.miaixz.bus.cache.support.PatternGenerator;
 import org.miaixz.bus.cache.support.PreventObjects;
 import org.miaixz.bus.core.annotation.Inject;
 import org.miaixz.bus.core.annotation.Singleton;
+import org.miaixz.bus.core.xyz.MethodKit;
 import org.miaixz.bus.logger.Logger;
 import org.miaixz.bus.proxy.invoker.ProxyChain;
 
+import java.lang.reflect.Method;
+
 /**
  * @author Kimi Liu
  * @since Java 17+
@@ -43,6 +46,11 @@ import org.miaixz.bus.proxy.invoker.ProxyChain;
 @Singleton
 public class SingleCacheReader extends AbstractReader {
 
+    /**
+     * 开启提前刷新时, 刷新时间点存放在 key + 该后缀下, 缓存中的值本身保持不变
+     */
+    private static final String REFRESH_AT_SUFFIX = ":refresh-at";
+
     @Inject
     private Manage cacheManager;
 
@@ -52,10 +60,25 @@ public class SingleCacheReader extends AbstractReader {
     @Inject(optional = true)
     private Hitting baseHitting;
 
+    @Inject
+    private SingleFlight singleFlight;
+
+    @Inject
+    private Refresher refresher;
+
     @Override
     public Object read(AnnoHolder annoHolder, MethodHolder methodHolder, ProxyChain baseInvoker, boolean needWrite) throws Throwable {
         String key = KeyGenerator.generateSingleKey(annoHolder, baseInvoker.getArguments());
         Object readResult = cacheManager.readSingle(annoHolder.getCache(), key);
+        // 剩余有效期不足时, 返回当前值并异步刷新
+        if (null != readResult && annoHolder.isRefreshAhead() && isRefreshDue(annoHolder, key)) {
+            // 刷新在原调用返回后执行, 此时调用链已不可用, 直接在目标对象上执行方法
+            Method method = baseInvoker.getMethod();
+            Object target = baseInvoker.getProxy();
+            Object[] args = baseInvoker.getArguments().clone();
+            refresher.refresh(annoHolder.getCache() + key,
+                    () -> doLoad(annoHolder, methodHolder, () -> MethodKit.invoke(target, method, args), key, true));
+        }
 
         doRecord(readResult, key, annoHolder);
         // 命中
@@ -68,7 +91,17 @@ public class SingleCacheReader extends AbstractReader {
             return readResult;
         }
 
-        Object invokeResult = doLogInvoke(baseInvoker::proceed);
+        // 未命中时合并相同key的并发回源
+        if (annoHolder.isCoalesce()) {
+            return singleFlight.execute(annoHolder.getCache() + key, annoHolder.getCoalesceTimeout(),
+                    () -> doLoad(annoHolder, methodHolder, baseInvoker::proceed, key, needWrite));
+        }
+        return doLoad(annoHolder, methodHolder, baseInvoker::proceed, key, needWrite);
+    }
+
+    private Object doLoad(AnnoHolder annoHolder, MethodHolder methodHolder, ThrowableSupplier<Object> invoker,
+                          String key, boolean needWrite) throws Throwable {
+        Object invokeResult = doLogInvoke(invoker);
         if (null != invokeResult && null == methodHolder.getInnerReturnType()) {
             methodHolder.setInnerReturnType(invokeResult.getClass());
         }
@@ -79,18 +112,41 @@ public class SingleCacheReader extends AbstractReader {
 
         if (null != invokeResult) {
             cacheManager.writeSingle(annoHolder.getCache(), key, invokeResult, annoHolder.getExpire());
+            writeRefreshAt(annoHolder, key);
             return invokeResult;
         }
 
         if (config.isPreventOn()) {
             cacheManager.writeSingle(annoHolder.getCache(), key, PreventObjects.getPreventObject(), annoHolder.getExpire());
+            writeRefreshAt(annoHolder, key);
         }
 
         return null;
     }
 
+    /**
+     * 记录需要提前刷新的时间点: 写入时间 + 过期时间 * (1 - 提前刷新比例)
+     */
+    private void writeRefreshAt(AnnoHolder annoHolder, String key) {
+        if (annoHolder.isRefreshAhead()) {
+            long refreshAt = System.currentTimeMillis()
+                    + (long) (annoHolder.getExpire() * (1 - annoHolder.getRefreshAhead()));
+            cacheManager.writeSingle(annoHolder.getCache(), key + REFRESH_AT_SUFFIX, refreshAt, annoHolder.getExpire());
+        }
+    }
+
+    /**
+     * 是否已到提前刷新的时间点, 由其他途径写入、没有刷新时间点的值不提前刷新, 到期后由正常的回源流程加载
+     */
+    private boolean isRefreshDue(AnnoHolder annoHolder, String key) {
+        Object refreshAt = cacheManager.readSingle(annoHolder.getCache(), key + REFRESH_AT_SUFFIX);
+        return refreshAt instanceof Number && System.currentTimeMillis() >= ((Number) refreshAt).longValue();
+    }
+
     private void doRecord(Object result, String key, AnnoHolder annoHolder) {
-        Logger.info("single cache hit rate: {}/1, key: {}", null == result ? 0 : 1, key);
+        if (config.isHitLogOn()) {
+            Logger.info("single cache hit rate: {}/1, key: {}", null == result ? 0 : 1, key);
+        }
         if (null != this.baseHitting) {
             String pattern = PatternGenerator.generatePattern(annoHolder);
             if (null != result) {
@@ -0,0 +1,251 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.cache.magic;
+
+import org.miaixz.bus.cache.magic.AbstractReader.ThrowableSupplier;
+import org.miaixz.bus.core.annotation.Singleton;
+import org.miaixz.bus.logger.Logger;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并并发回源: 同一个key同时未命中时, 只有第一个调用者执行方法, 其余调用者等待并共享其结果
+ * 避免热点key过期瞬间大量请求同时击穿到数据库
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+@Singleton
+public class SingleFlight {
+
+    /**
+     * 正在执行的回源调用
+     */
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * 正在执行的批量回源, 每个未命中的key登记一次, 同一次批量回源的key共享同一个{@link Flight}
+     */
+    private final ConcurrentMap<String, Flight> batchFlights = new ConcurrentHashMap<>();
+
+    /**
+     * 实际执行的回源次数
+     */
+    private final LongAdder loadCount = new LongAdder();
+
+    /**
+     * 被合并的等待者总数
+     */
+    private final LongAdder absorbedCount = new LongAdder();
+
+    /**
+     * 等待超时后自行回源的次数
+     */
+    private final LongAdder timeoutCount = new LongAdder();
+
+    /**
+     * 单次回源合并的最大等待者数
+     */
+    private final LongAccumulator maxAbsorbed = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 执行回源, 相同key的并发调用共享同一次执行结果
+     *
+     * @param key     缓存key
+     * @param timeout 等待者最长等待时间, 单位毫秒, {@code 0}表示一直等待
+     * @param loader  回源方法
+     * @return 回源结果
+     * @throws Throwable 回源方法抛出的异常
+     */
+    Object execute(String key, long timeout, ThrowableSupplier<Object> loader) throws Throwable {
+        Flight flight = new Flight();
+        Flight inFlight = flights.putIfAbsent(key, flight);
+        if (null == inFlight) {
+            return doLoad(key, flight, loader);
+        }
+
+        inFlight.waiters.incrementAndGet();
+        absorbedCount.increment();
+        try {
+            return timeout > 0 ? inFlight.future.get(timeout, TimeUnit.MILLISECONDS) : inFlight.future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            timeoutCount.increment();
+            Logger.warn("coalesced load wait timeout [{}] ms, invoke directly, key: {}", timeout, key);
+            return loader.get();
+        }
+    }
+
+    private Object doLoad(String key, Flight flight, ThrowableSupplier<Object> loader) throws Throwable {
+        loadCount.increment();
+        try {
+            Object result = loader.get();
+            flight.future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+
+            int waiters = flight.waiters.get();
+            maxAbsorbed.accumulate(waiters);
+            if (waiters > 0) {
+                Logger.debug("coalesced load key: {}, absorbed waiters: {}", key, waiters);
+            }
+        }
+    }
+
+    /**
+     * 批量回源, 按key合并: 已有其它调用在回源的key直接等待其结果, 剩余的key由当前调用一次回源
+     * 当前调用总是先完成自己负责的key再等待其它调用, 因此key集合交叉的并发调用不会互相等待
+     *
+     * @param prefix  key前缀, 一般为缓存名
+     * @param keys    未命中的key
+     * @param timeout 等待者最长等待时间, 单位毫秒, {@code 0}表示一直等待
+     * @param loader  以需要回源的key执行回源, 返回key -> value, 并负责写入缓存
+     * @return 全部未命中key的key -> value, 不包含回源结果中不存在的key
+     * @throws Throwable 回源方法抛出的异常
+     */
+    Map<String, Object> executeAll(String prefix, Set<String> keys, long timeout, BatchLoader loader) throws Throwable {
+        Flight flight = new Flight();
+        Set<String> ownKeys = new LinkedHashSet<>();
+        Map<Flight, List<String>> joined = new LinkedHashMap<>();
+        for (String key : keys) {
+            Flight inFlight = batchFlights.putIfAbsent(prefix + key, flight);
+            if (null == inFlight) {
+                ownKeys.add(key);
+            } else {
+                joined.computeIfAbsent(inFlight, f -> new ArrayList<>()).add(key);
+            }
+        }
+
+        Map<String, Object> keyValueMap = new LinkedHashMap<>(keys.size());
+        if (!ownKeys.isEmpty()) {
+            keyValueMap.putAll(doLoadAll(prefix, ownKeys, flight, loader));
+        }
+        if (joined.isEmpty()) {
+            return keyValueMap;
+        }
+
+        Set<String> timeoutKeys = new LinkedHashSet<>();
+        long deadline = System.currentTimeMillis() + timeout;
+        for (Map.Entry<Flight, List<String>> entry : joined.entrySet()) {
+            Flight inFlight = entry.getKey();
+            inFlight.waiters.incrementAndGet();
+            absorbedCount.increment();
+            try {
+                Map<String, Object> loaded;
+                if (timeout > 0) {
+                    long remaining = Math.max(deadline - System.currentTimeMillis(), 0);
+                    loaded = (Map<String, Object>) inFlight.future.get(remaining, TimeUnit.MILLISECONDS);
+                } else {
+                    loaded = (Map<String, Object>) inFlight.future.get();
+                }
+                for (String key : entry.getValue()) {
+                    if (loaded.containsKey(key)) {
+                        keyValueMap.put(key, loaded.get(key));
+                    }
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (TimeoutException e) {
+                timeoutKeys.addAll(entry.getValue());
+            }
+        }
+
+        if (!timeoutKeys.isEmpty()) {
+            timeoutCount.increment();
+            Logger.warn("coalesced load wait timeout [{}] ms, invoke directly, keys: {}", timeout, timeoutKeys);
+            keyValueMap.putAll(loader.load(timeoutKeys));
+        }
+        return keyValueMap;
+    }
+
+    private Map<String, Object> doLoadAll(String prefix, Set<String> keys, Flight flight, BatchLoader loader) throws Throwable {
+        loadCount.increment();
+        try {
+            Map<String, Object> result = loader.load(new LinkedHashSet<>(keys));
+            flight.future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            for (String key : keys) {
+                batchFlights.remove(prefix + key, flight);
+            }
+
+            int waiters = flight.waiters.get();
+            maxAbsorbed.accumulate(waiters);
+            if (waiters > 0) {
+                Logger.debug("coalesced load keys: {}, absorbed waiters: {}", keys, waiters);
+            }
+        }
+    }
+
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getAbsorbedCount() {
+        return absorbedCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getMaxAbsorbed() {
+        return maxAbsorbed.get();
+    }
+
+    /**
+     * 批量回源方法
+     */
+    interface BatchLoader {
+
+        Map<String, Object> load(Set<String> keys) throws Throwable;
+
+    }
+
+    /**
+     * 一次正在执行的回源
+     */
+    private static class Flight {
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private final AtomicInteger waiters = new AtomicInteger();
+
+    }
+
+}
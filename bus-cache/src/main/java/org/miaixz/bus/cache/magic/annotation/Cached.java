@@ -63,4 +63,25 @@ public @interface Cached {
      */
     int expire() default CacheExpire.FOREVER;
 
+    /**
+     * @return whether concurrent misses on the same key share one in-flight
+     * method invocation and its result (request coalescing)
+     */
+    boolean coalesce() default false;
+
+    /**
+     * @return max time a coalesced caller waits for the in-flight invocation, time unit: <b>milliseconds</b>,
+     * when exceeded the caller invokes the method itself; {@code 0} means wait until the invocation completes
+     */
+    long coalesceTimeout() default 0;
+
+    /**
+     * @return refresh-ahead fraction of the {@code expire}, in range (0, 1).
+     * when an entry is read with less than this fraction of its ttl remaining, the cached value is returned
+     * immediately and the method is re-invoked asynchronously to rewrite the entry;
+     * the refresh time is kept under the sibling key {@code <key>:refresh-at}, the cached value itself is unchanged;
+     * {@code 0} disables refresh-ahead
+     */
+    float refreshAhead() default 0;
+
 }
@@ -33,11 +33,10 @@ import org.miaixz.bus.cache.serialize.Hessian2Serializer;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.PipelineBinaryCommands;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Redis 单机缓存支持
@@ -47,17 +46,34 @@ import java.util.Map;
  */
 public class RedisCache implements CacheX {
 
+    /**
+     * 批量操作时单条MGET/MSET命令携带的默认key数量
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
     private BaseSerializer serializer;
 
     private JedisPool jedisPool;
 
+    private int batchSize;
+
     public RedisCache(JedisPool jedisPool) {
         this(jedisPool, new Hessian2Serializer());
     }
 
     public RedisCache(JedisPool jedisPool, BaseSerializer serializer) {
+        this(jedisPool, serializer, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param jedisPool  连接池
+     * @param serializer 序列化方式
+     * @param batchSize  批量读写时按该数量拆分命令, 所有分片在同一个pipeline中一次往返完成
+     */
+    public RedisCache(JedisPool jedisPool, BaseSerializer serializer, int batchSize) {
         this.jedisPool = jedisPool;
         this.serializer = serializer;
+        this.batchSize = Math.max(1, batchSize);
     }
 
     static byte[][] toByteArray(Map<String, Object> keyValueMap, BaseSerializer serializer) {
@@ -79,6 +95,52 @@ public class RedisCache implements CacheX {
         return array;
     }
 
+    /**
+     * 在pipeline中按batchSize分片执行MGET
+     *
+     * @param pipeline  pipeline
+     * @param keys      key列表
+     * @param batchSize 单条命令的key数量
+     * @return 各分片的响应, 顺序与keys一致
+     */
+    static List<Response<List<byte[]>>> pipelinedMget(PipelineBinaryCommands pipeline,
+                                                      byte[][] keys, int batchSize) {
+        List<Response<List<byte[]>>> responses = new ArrayList<>(keys.length / batchSize + 1);
+        for (int from = 0; from < keys.length; from += batchSize) {
+            responses.add(pipeline.mget(Arrays.copyOfRange(keys, from, Math.min(keys.length, from + batchSize))));
+        }
+        return responses;
+    }
+
+    /**
+     * 在pipeline中写入, 永久缓存按batchSize分片MSET, 否则逐个PSETEX
+     *
+     * @param pipeline  pipeline
+     * @param kvs       key、value交替排列的数组
+     * @param expire    过期时间(ms)
+     * @param batchSize 单条命令的key数量
+     */
+    static void pipelinedWrite(PipelineBinaryCommands pipeline,
+                               byte[][] kvs, long expire, int batchSize) {
+        if (expire == CacheExpire.FOREVER) {
+            for (int from = 0; from < kvs.length; from += batchSize * 2) {
+                pipeline.mset(Arrays.copyOfRange(kvs, from, Math.min(kvs.length, from + batchSize * 2)));
+            }
+        } else {
+            for (int i = 0; i < kvs.length; i += 2) {
+                pipeline.psetex(kvs[i], expire, kvs[i + 1]);
+            }
+        }
+    }
+
+    static List<byte[]> joinResponses(List<Response<List<byte[]>>> responses, int size) {
+        List<byte[]> values = new ArrayList<>(size);
+        for (Response<List<byte[]>> response : responses) {
+            values.addAll(response.get());
+        }
+        return values;
+    }
+
     static Map<String, Object> toObjectMap(Collection<String> keys, List<byte[]> bytesValues, BaseSerializer serializer) {
         int index = 0;
         Map<String, Object> result = new HashMap<>(keys.size());
@@ -111,23 +173,37 @@ public class RedisCache implements CacheX {
 
     @Override
     public Map<String, Object> read(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
         try (Jedis client = jedisPool.getResource()) {
-            List<byte[]> bytesValues = client.mget(toByteArray(keys));
-            return toObjectMap(keys, bytesValues, this.serializer);
+            byte[][] keyBytes = toByteArray(keys);
+            if (keyBytes.length <= batchSize) {
+                return toObjectMap(keys, client.mget(keyBytes), this.serializer);
+            }
+
+            // 大批量拆成多条MGET, 避免单条命令阻塞服务端, 但仍只有一次网络往返
+            Pipeline pipeline = client.pipelined();
+            List<Response<List<byte[]>>> responses = pipelinedMget(pipeline, keyBytes, batchSize);
+            pipeline.sync();
+            return toObjectMap(keys, joinResponses(responses, keyBytes.length), this.serializer);
         }
     }
 
     @Override
     public void write(Map<String, Object> keyValueMap, long expire) {
+        if (keyValueMap.isEmpty()) {
+            return;
+        }
+
         try (Jedis client = jedisPool.getResource()) {
             byte[][] kvs = toByteArray(keyValueMap, serializer);
-            if (expire == CacheExpire.FOREVER) {
+            if (expire == CacheExpire.FOREVER && keyValueMap.size() <= batchSize) {
                 client.mset(kvs);
             } else {
                 Pipeline pipeline = client.pipelined();
-                for (int i = 0; i < kvs.length; i += 2) {
-                    pipeline.psetex(kvs[i], expire, kvs[i + 1]);
-                }
+                pipelinedWrite(pipeline, kvs, expire, batchSize);
                 pipeline.sync();
             }
         }
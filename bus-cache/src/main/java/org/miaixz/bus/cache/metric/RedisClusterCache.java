@@ -30,7 +30,10 @@ import org.miaixz.bus.cache.CacheX;
 import org.miaixz.bus.cache.magic.CacheExpire;
 import org.miaixz.bus.cache.serialize.BaseSerializer;
 import org.miaixz.bus.cache.serialize.Hessian2Serializer;
+import redis.clients.jedis.ClusterPipeline;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
 import java.util.*;
 
@@ -46,13 +49,39 @@ public class RedisClusterCache implements CacheX {
 
     private JedisCluster jedisCluster;
 
+    private int batchSize;
+
     public RedisClusterCache(JedisCluster jedisCluster) {
         this(jedisCluster, new Hessian2Serializer());
     }
 
     public RedisClusterCache(JedisCluster jedisCluster, BaseSerializer serializer) {
+        this(jedisCluster, serializer, RedisCache.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param jedisCluster 集群客户端
+     * @param serializer   序列化方式
+     * @param batchSize    批量读写时同一slot内按该数量拆分命令
+     */
+    public RedisClusterCache(JedisCluster jedisCluster, BaseSerializer serializer, int batchSize) {
         this.jedisCluster = jedisCluster;
         this.serializer = serializer;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 按hash slot分组, 组内的多key命令可以在对应节点上直接执行
+     *
+     * @param keys key集合
+     * @return slot -> 该slot下的key
+     */
+    static Map<Integer, List<String>> groupBySlot(Collection<String> keys) {
+        Map<Integer, List<String>> groups = new HashMap<>();
+        for (String key : keys) {
+            groups.computeIfAbsent(JedisClusterCRC16.getSlot(key), (slot) -> new ArrayList<>()).add(key);
+        }
+        return groups;
     }
 
     static byte[][] toByteArray(Map<String, Object> keyValueMap, BaseSerializer serializer) {
@@ -105,8 +134,27 @@ public class RedisClusterCache implements CacheX {
             return Collections.emptyMap();
         }
 
-        List<byte[]> bytesValues = jedisCluster.mget(toByteArray(keys));
-        return toObjectMap(keys, bytesValues, this.serializer);
+        Map<Integer, List<String>> groups = groupBySlot(keys);
+        if (groups.size() == 1 && keys.size() <= batchSize) {
+            return toObjectMap(keys, jedisCluster.mget(toByteArray(keys)), this.serializer);
+        }
+
+        // 每个slot按batchSize分片MGET, 由ClusterPipeline按节点合并发送并并行同步
+        List<List<String>> slotKeysList = new ArrayList<>(groups.values());
+        List<List<Response<List<byte[]>>>> responses = new ArrayList<>(slotKeysList.size());
+        try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+            for (List<String> slotKeys : slotKeysList) {
+                responses.add(RedisCache.pipelinedMget(pipeline, toByteArray(slotKeys), batchSize));
+            }
+            pipeline.sync();
+        }
+
+        Map<String, Object> result = new HashMap<>(keys.size());
+        for (int i = 0; i < slotKeysList.size(); ++i) {
+            List<String> slotKeys = slotKeysList.get(i);
+            result.putAll(toObjectMap(slotKeys, RedisCache.joinResponses(responses.get(i), slotKeys.size()), this.serializer));
+        }
+        return result;
     }
 
     @Override
@@ -115,12 +163,17 @@ public class RedisClusterCache implements CacheX {
             return;
         }
 
-        if (expire == CacheExpire.FOREVER) {
-            jedisCluster.mset(toByteArray(keyValueMap, this.serializer));
-        } else {
-            for (Map.Entry<String, Object> entry : keyValueMap.entrySet()) {
-                write(entry.getKey(), entry.getValue(), expire);
+        try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+            if (expire == CacheExpire.FOREVER) {
+                for (List<String> slotKeys : groupBySlot(keyValueMap.keySet()).values()) {
+                    Map<String, Object> slotKeyValues = new LinkedHashMap<>(slotKeys.size() * 2);
+                    slotKeys.forEach(key -> slotKeyValues.put(key, keyValueMap.get(key)));
+                    RedisCache.pipelinedWrite(pipeline, toByteArray(slotKeyValues, this.serializer), expire, batchSize);
+                }
+            } else {
+                RedisCache.pipelinedWrite(pipeline, toByteArray(keyValueMap, this.serializer), expire, batchSize);
             }
+            pipeline.sync();
         }
     }
 
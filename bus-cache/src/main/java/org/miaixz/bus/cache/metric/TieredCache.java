@@ -0,0 +1,315 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.cache.metric;
+
+import org.miaixz.bus.cache.CacheX;
+import org.miaixz.bus.cache.magic.CacheExpire;
+import org.miaixz.bus.core.cache.provider.ConcurrentLRUCache;
+import org.miaixz.bus.core.xyz.MapKit;
+import org.miaixz.bus.logger.Logger;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 多级缓存支持: 进程内有界的一级缓存(L1) + 任意远程{@link CacheX}作为二级缓存(L2)
+ * <ul>
+ *     <li>读取时优先命中L1, 未命中时读取L2并回填L1</li>
+ *     <li>写入及删除时同时更新L2与本地L1, 并通过{@link InvalidationChannel}广播, 其它节点收到后删除各自L1中的副本</li>
+ * </ul>
+ * 广播为尽力而为, 消息丢失时L1中的副本最长在其过期时间后失效。
+ * 回填不知道L2中剩余的有效期, 因此总是使用有界的过期时间; 回填期间同一key被写入或删除时放弃回填, 避免旧值留在L1中
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class TieredCache implements CacheX {
+
+    /**
+     * 消息类型: 删除指定key
+     */
+    private static final char REMOVE = 'R';
+
+    /**
+     * 消息类型: 清空全部L1
+     */
+    private static final char CLEAR = 'C';
+
+    /**
+     * 版本号分段数, 须为2的幂
+     */
+    private static final int STRIPES = 64;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentLRUCache<String, Object> local;
+
+    private final CacheX remote;
+
+    private final long localExpire;
+
+    /**
+     * 从L2回填L1时使用的过期时间
+     */
+    private final long backfillExpire;
+
+    /**
+     * 按key分段的版本号, 每次写入、删除L1前递增, 回填后据此判断期间是否发生过失效
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private final InvalidationChannel channel;
+
+    /**
+     * 构造, L1默认容量10000, 默认过期时间1分钟
+     *
+     * @param remote  二级缓存
+     * @param channel 失效广播通道
+     */
+    public TieredCache(CacheX remote, InvalidationChannel channel) {
+        this(remote, 10000, CacheExpire.ONE_MIN, channel);
+    }
+
+    /**
+     * 构造
+     *
+     * @param remote        二级缓存
+     * @param localCapacity L1最大容量
+     * @param localExpire   L1过期时间(毫秒), 同时受写入时指定的过期时间限制;
+     *                      为0时写入以L2的过期时间为准, 回填使用{@link CacheExpire#ONE_MIN}
+     * @param channel       失效广播通道
+     */
+    public TieredCache(CacheX remote, int localCapacity, long localExpire, InvalidationChannel channel) {
+        this.remote = remote;
+        this.localExpire = localExpire;
+        this.backfillExpire = localExpire > 0 ? localExpire : CacheExpire.ONE_MIN;
+        this.local = new ConcurrentLRUCache<>(localCapacity, localExpire);
+        this.channel = channel;
+        this.channel.subscribe(this::onInvalidate);
+    }
+
+    @Override
+    public Object read(String key) {
+        Object value = local.get(key, false);
+        if (null != value) {
+            return value;
+        }
+
+        long version = versions.get(stripe(key));
+        value = remote.read(key);
+        if (null != value) {
+            backfill(key, value, version);
+        }
+        return value;
+    }
+
+    @Override
+    public Map<String, Object> read(Collection<String> keys) {
+        Map<String, Object> result = new HashMap<>(keys.size());
+        List<String> missKeys = new ArrayList<>();
+        for (String key : keys) {
+            Object value = local.get(key, false);
+            if (null == value) {
+                missKeys.add(key);
+            } else {
+                result.put(key, value);
+            }
+        }
+
+        if (!missKeys.isEmpty()) {
+            long[] snapshot = new long[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                snapshot[i] = versions.get(i);
+            }
+            Map<String, Object> remoteValues = remote.read(missKeys);
+            remoteValues.forEach((key, value) -> {
+                if (null != value) {
+                    backfill(key, value, snapshot[stripe(key)]);
+                }
+                result.put(key, value);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void write(String key, Object value, long expire) {
+        remote.write(key, value, expire);
+        invalidate(key);
+        local.put(key, value, localExpire(expire));
+        publish(key);
+    }
+
+    @Override
+    public void write(Map<String, Object> keyValueMap, long expire) {
+        if (MapKit.isEmpty(keyValueMap)) {
+            return;
+        }
+
+        remote.write(keyValueMap, expire);
+        long timeout = localExpire(expire);
+        keyValueMap.forEach((key, value) -> {
+            invalidate(key);
+            local.put(key, value, timeout);
+        });
+        publish(keyValueMap.keySet().toArray(new String[0]));
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return local.containsKey(key) || remote.containsKey(key);
+    }
+
+    @Override
+    public void remove(String... keys) {
+        remote.remove(keys);
+        for (String key : keys) {
+            invalidate(key);
+            local.remove(key);
+        }
+        publish(keys);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        invalidateAll();
+        local.clear();
+        publish(CLEAR);
+    }
+
+    /**
+     * @return L1缓存, 可用于查看命中数等统计信息
+     */
+    public ConcurrentLRUCache<String, Object> getLocal() {
+        return local;
+    }
+
+    /**
+     * 回填L1, 若读取L2之后该key所在分段发生过失效, L2返回的可能是旧值, 删除刚回填的副本
+     *
+     * @param key     key
+     * @param value   从L2读取的值
+     * @param version 读取L2之前该key所在分段的版本号
+     */
+    private void backfill(String key, Object value, long version) {
+        local.put(key, value, backfillExpire);
+        if (versions.get(stripe(key)) != version) {
+            local.remove(key);
+        }
+    }
+
+    /**
+     * 递增key所在分段的版本号, 须在修改L1之前调用
+     */
+    private void invalidate(String key) {
+        versions.incrementAndGet(stripe(key));
+    }
+
+    private void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private long localExpire(long expire) {
+        if (expire <= CacheExpire.FOREVER) {
+            return localExpire;
+        }
+        // L1未设置过期时间时, 以L2的过期时间为准, 避免L1中的副本比L2存活更久
+        return localExpire <= 0 ? expire : Math.min(expire, localExpire);
+    }
+
+    /**
+     * 消息格式: 节点ID + 消息类型 + 若干{@code 长度:key}, 使用长度前缀使key可以包含任意字符
+     *
+     * @param keys 需要删除的key
+     */
+    private void publish(String... keys) {
+        if (keys.length == 0) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(nodeId).append(REMOVE);
+        for (String key : keys) {
+            message.append(key.length()).append(':').append(key);
+        }
+        send(message.toString());
+    }
+
+    private void publish(char type) {
+        send(nodeId + type);
+    }
+
+    private void send(String message) {
+        try {
+            channel.publish(message);
+        } catch (Throwable e) {
+            Logger.error(e, "publish cache invalidation failed: {}", e.getMessage());
+        }
+    }
+
+    private void onInvalidate(String message) {
+        int offset = nodeId.length();
+        // 忽略本节点发出的及无法识别的消息
+        if (message.length() <= offset || message.startsWith(nodeId)) {
+            return;
+        }
+        char type = message.charAt(offset++);
+        if (type == CLEAR) {
+            invalidateAll();
+            local.clear();
+            return;
+        }
+        if (type != REMOVE) {
+            return;
+        }
+        while (offset < message.length()) {
+            int colon = message.indexOf(':', offset);
+            if (colon < 0) {
+                return;
+            }
+            int end;
+            try {
+                end = colon + 1 + Integer.parseInt(message, offset, colon, 10);
+            } catch (NumberFormatException e) {
+                return;
+            }
+            if (end > message.length()) {
+                return;
+            }
+            String key = message.substring(colon + 1, end);
+            invalidate(key);
+            local.remove(key);
+            offset = end;
+        }
+    }
+
+}
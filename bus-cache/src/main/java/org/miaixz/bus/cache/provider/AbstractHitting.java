@@ -27,14 +27,12 @@ package org.miaixz.bus.cache.provider;
 
 import jakarta.annotation.PreDestroy;
 import org.miaixz.bus.cache.Hitting;
-import org.miaixz.bus.cache.magic.CachePair;
 import org.miaixz.bus.core.lang.Normal;
 import org.miaixz.bus.setting.Builder;
 import org.springframework.jdbc.core.JdbcOperations;
 
 import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -48,21 +46,17 @@ import java.util.stream.Stream;
  */
 public abstract class AbstractHitting implements Hitting {
 
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
-        Thread thread = new Thread(r);
-        thread.setName("cache:db-writer");
-        thread.setDaemon(true);
-        return thread;
-    });
-
     private static final Lock lock = new ReentrantLock();
 
-    private volatile boolean isShutdown = false;
+    private final Map<String, Object> context;
 
-    private BlockingQueue<CachePair<String, Integer>> hitQueue = new LinkedTransferQueue<>();
+    private final long flushInterval;
 
-    private BlockingQueue<CachePair<String, Integer>> requireQueue = new LinkedTransferQueue<>();
+    private volatile HitCounter counter;
 
+    /**
+     * 与计数器一同初始化, 由{@link #counter}的volatile写发布
+     */
     private JdbcOperations jdbcOperations;
 
     private Properties sqls;
@@ -71,13 +65,9 @@ public abstract class AbstractHitting implements Hitting {
         InputStream resource = this.getClass().getClassLoader().getResourceAsStream(Normal.META_INF + "/caches/bus-cache.yaml");
         this.sqls = Builder.loadYaml(resource, Properties.class);
 
-        this.jdbcOperations = jdbcOperationsSupplier(context).get();
-        executor.submit(() -> {
-            while (!isShutdown) {
-                dumpToDB(hitQueue, "hit_count");
-                dumpToDB(requireQueue, "require_count");
-            }
-        });
+        this.context = context;
+        // 请求只累加内存计数, 按flushInterval(ms)批量写库
+        this.flushInterval = ((Number) context.getOrDefault("flushInterval", HitCounter.DEFAULT_FLUSH_INTERVAL)).longValue();
     }
 
     public AbstractHitting(String url, String username, String password) {
@@ -117,33 +107,14 @@ public abstract class AbstractHitting implements Hitting {
      */
     protected abstract Stream<DataDO> transferResults(List<Map<String, Object>> map);
 
-    private void dumpToDB(BlockingQueue<CachePair<String, Integer>> queue, String column) {
-        long times = 0;
-        CachePair<String, Integer> head;
-
-        // gather queue's all or before 100 data to a Map
-        Map<String, AtomicLong> holdMap = new HashMap<>();
-        while (null != (head = queue.poll()) && times <= 100) {
-            holdMap
-                    .computeIfAbsent(head.getLeft(), (key) -> new AtomicLong(0L))
-                    .addAndGet(head.getRight());
-            ++times;
-        }
-
-        // batch write to DB
-        holdMap.forEach((pattern, count) -> countAddCas(column, pattern, count.get()));
-    }
-
     @Override
     public void hitIncr(String pattern, int count) {
-        if (count != 0)
-            hitQueue.add(CachePair.of(pattern, count));
+        counter().hitIncr(pattern, count);
     }
 
     @Override
     public void reqIncr(String pattern, int count) {
-        if (count != 0)
-            requireQueue.add(CachePair.of(pattern, count));
+        counter().reqIncr(pattern, count);
     }
 
     @Override
@@ -170,14 +141,21 @@ public abstract class AbstractHitting implements Hitting {
         return result;
     }
 
+    @Override
+    public Map<String, Hitting.HittingDO> snapshot() {
+        return counter().snapshot(summaryName());
+    }
+
     @Override
     public void reset(String pattern) {
-        jdbcOperations.update(sqls.getProperty("delete"), pattern);
+        counter().reset(pattern);
+        jdbcOperations().update(sqls.getProperty("delete"), pattern);
     }
 
     @Override
     public void resetAll() {
-        jdbcOperations.update(sqls.getProperty("truncate"));
+        counter().resetAll();
+        jdbcOperations().update(sqls.getProperty("truncate"));
     }
 
     private void countAddCas(String column, String pattern, long count) {
@@ -207,14 +185,14 @@ public abstract class AbstractHitting implements Hitting {
 
     private Optional<DataDO> queryObject(String pattern) {
         String selectSql = sqls.getProperty("select");
-        List<Map<String, Object>> mapResults = jdbcOperations.queryForList(selectSql, pattern);
+        List<Map<String, Object>> mapResults = jdbcOperations().queryForList(selectSql, pattern);
 
         return transferResults(mapResults).findFirst();
     }
 
     private List<DataDO> queryAll() {
         String selectAllQuery = sqls.getProperty("select_all");
-        List<Map<String, Object>> mapResults = jdbcOperations.queryForList(selectAllQuery);
+        List<Map<String, Object>> mapResults = jdbcOperations().queryForList(selectAllQuery);
 
         return transferResults(mapResults).collect(Collectors.toList());
     }
@@ -222,13 +200,13 @@ public abstract class AbstractHitting implements Hitting {
     private int insert(String column, String pattern, long count) {
         String insertSql = String.format(sqls.getProperty("insert"), column);
 
-        return jdbcOperations.update(insertSql, pattern, count);
+        return jdbcOperations().update(insertSql, pattern, count);
     }
 
     private int update(String column, String pattern, long count, long version) {
         String updateSql = String.format(sqls.getProperty("update"), column);
 
-        return jdbcOperations.update(updateSql, count, pattern, version);
+        return jdbcOperations().update(updateSql, count, pattern, version);
     }
 
     private long getObjectCount(DataDO data, String column, long countOffset) {
@@ -239,14 +217,35 @@ public abstract class AbstractHitting implements Hitting {
 
     @PreDestroy
     public void tearDown() {
-        while (hitQueue.size() > 0 || requireQueue.size() > 0) {
-            try {
-                TimeUnit.SECONDS.sleep(1);
-            } catch (InterruptedException ignored) {
+        HitCounter counter = this.counter;
+        if (null != counter) {
+            counter.close();
+        }
+    }
+
+    /**
+     * 首次使用时初始化数据库并启动计数器, 避免构造期间调用子类方法或将未构造完成的实例交给刷新线程
+     */
+    private HitCounter counter() {
+        HitCounter counter = this.counter;
+        if (null == counter) {
+            synchronized (this) {
+                counter = this.counter;
+                if (null == counter) {
+                    this.jdbcOperations = jdbcOperationsSupplier(context).get();
+                    counter = new HitCounter(flushInterval,
+                            (pattern, count) -> countAddCas("hit_count", pattern, count),
+                            (pattern, count) -> countAddCas("require_count", pattern, count)).start();
+                    this.counter = counter;
+                }
             }
         }
+        return counter;
+    }
 
-        isShutdown = true;
+    private JdbcOperations jdbcOperations() {
+        counter();
+        return jdbcOperations;
     }
 
     protected static final class DataDO {
@@ -0,0 +1,217 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.cache.provider;
+
+import org.miaixz.bus.cache.Hitting;
+import org.miaixz.bus.logger.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 命中率计数器: 请求线程只累加内存中按分组划分的{@link LongAdder}, 由后台线程定期将增量批量刷入存储
+ * 计数同时保留在本地, 可通过{@link #snapshot(String)}低成本拉取
+ * 创建后需调用{@link #start()}开始定时刷新
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class HitCounter {
+
+    /**
+     * 默认刷新间隔(ms)
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000L;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setName("cache:hitting-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Lock flushLock = new ReentrantLock();
+
+    private final Flusher hitFlusher;
+
+    private final Flusher requireFlusher;
+
+    private final long flushInterval;
+
+    private ScheduledFuture<?> future;
+
+    /**
+     * @param flushInterval  刷新间隔(ms)
+     * @param hitFlusher     命中次数增量写入存储的实现
+     * @param requireFlusher 请求次数增量写入存储的实现
+     */
+    public HitCounter(long flushInterval, Flusher hitFlusher, Flusher requireFlusher) {
+        this.hitFlusher = hitFlusher;
+        this.requireFlusher = requireFlusher;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * 开始定时刷新, 重复调用无效
+     *
+     * @return this
+     */
+    public synchronized HitCounter start() {
+        if (null == future) {
+            future = scheduler.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    public void hitIncr(String pattern, int count) {
+        if (count != 0) {
+            counter(pattern).hit.add(count);
+        }
+    }
+
+    public void reqIncr(String pattern, int count) {
+        if (count != 0) {
+            counter(pattern).require.add(count);
+        }
+    }
+
+    /**
+     * 本节点启动(或重置)以来的命中率, 只读取内存计数, 不访问存储
+     *
+     * @param summaryName 汇总项名称
+     * @return 分组 -> 命中率
+     */
+    public Map<String, Hitting.HittingDO> snapshot(String summaryName) {
+        Map<String, Hitting.HittingDO> result = new LinkedHashMap<>();
+
+        long totalHit = 0L;
+        long totalRequire = 0L;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            long hit = entry.getValue().hit.sum();
+            long require = entry.getValue().require.sum();
+            totalHit += hit;
+            totalRequire += require;
+
+            result.put(entry.getKey(), Hitting.HittingDO.newInstance(hit, require));
+        }
+        result.put(summaryName, Hitting.HittingDO.newInstance(totalHit, totalRequire));
+
+        return result;
+    }
+
+    public void reset(String pattern) {
+        counters.remove(pattern);
+    }
+
+    public void resetAll() {
+        counters.clear();
+    }
+
+    /**
+     * 将上次刷新以来的增量写入存储, 写入失败的增量保留到下次刷新
+     * 命中与请求分别写入, 各自的水位只在对应写入成功后推进, 一项失败不会导致另一项重复累加
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            counters.forEach((pattern, counter) -> {
+                long hit = counter.hit.sum();
+                if (hit != counter.flushedHit && flush(hitFlusher, pattern, hit - counter.flushedHit)) {
+                    counter.flushedHit = hit;
+                }
+
+                long require = counter.require.sum();
+                if (require != counter.flushedRequire && flush(requireFlusher, pattern, require - counter.flushedRequire)) {
+                    counter.flushedRequire = require;
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停止定时刷新, 并将剩余增量写入存储
+     */
+    public void close() {
+        synchronized (this) {
+            if (null != future) {
+                future.cancel(false);
+            }
+        }
+        flush();
+    }
+
+    private boolean flush(Flusher flusher, String pattern, long count) {
+        try {
+            flusher.flush(pattern, count);
+            return true;
+        } catch (Exception e) {
+            Logger.error(e, "flush hitting of pattern: {} error: {}", pattern, e.getMessage());
+            return false;
+        }
+    }
+
+    private Counter counter(String pattern) {
+        Counter counter = counters.get(pattern);
+        return null != counter ? counter : counters.computeIfAbsent(pattern, (key) -> new Counter());
+    }
+
+    /**
+     * 增量写入存储
+     */
+    @FunctionalInterface
+    public interface Flusher {
+
+        /**
+         * @param pattern 分组
+         * @param count   计数增量
+         * @throws Exception 写入失败
+         */
+        void flush(String pattern, long count) throws Exception;
+    }
+
+    private static final class Counter {
+
+        private final LongAdder hit = new LongAdder();
+
+        private final LongAdder require = new LongAdder();
+
+        /**
+         * 已写入存储的计数, 只在持有flushLock时访问
+         */
+        private long flushedHit;
+
+        private long flushedRequire;
+    }
+
+}
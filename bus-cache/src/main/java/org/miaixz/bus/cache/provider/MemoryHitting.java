@@ -29,9 +29,11 @@ import org.miaixz.bus.cache.Hitting;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author Kimi Liu
@@ -39,24 +41,24 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class MemoryHitting implements Hitting {
 
-    private ConcurrentMap<String, AtomicLong> hitMap = new ConcurrentHashMap<>();
+    private ConcurrentMap<String, LongAdder> hitMap = new ConcurrentHashMap<>();
 
-    private ConcurrentMap<String, AtomicLong> requireMap = new ConcurrentHashMap<>();
+    private ConcurrentMap<String, LongAdder> requireMap = new ConcurrentHashMap<>();
 
     @Override
     public void hitIncr(String pattern, int count) {
         hitMap.computeIfAbsent(
                 pattern,
-                (k) -> new AtomicLong()
-        ).addAndGet(count);
+                (k) -> new LongAdder()
+        ).add(count);
     }
 
     @Override
     public void reqIncr(String pattern, int count) {
         requireMap.computeIfAbsent(
                 pattern,
-                (k) -> new AtomicLong()
-        ).addAndGet(count);
+                (k) -> new LongAdder()
+        ).add(count);
     }
 
     @Override
@@ -66,8 +68,8 @@ public class MemoryHitting implements Hitting {
         AtomicLong statisticsHit = new AtomicLong(0);
         AtomicLong statisticsRequired = new AtomicLong(0);
         requireMap.forEach((pattern, count) -> {
-            long hit = hitMap.computeIfAbsent(pattern, (key) -> new AtomicLong(0)).get();
-            long require = count.get();
+            long hit = Optional.ofNullable(hitMap.get(pattern)).map(LongAdder::sum).orElse(0L);
+            long require = count.sum();
 
             statisticsHit.addAndGet(hit);
             statisticsRequired.addAndGet(require);
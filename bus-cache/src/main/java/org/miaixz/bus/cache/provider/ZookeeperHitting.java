@@ -33,14 +33,12 @@ import org.apache.curator.framework.recipes.atomic.DistributedAtomicLong;
 import org.apache.curator.retry.RetryNTimes;
 import org.apache.zookeeper.KeeperException;
 import org.miaixz.bus.cache.Hitting;
-import org.miaixz.bus.cache.magic.CachePair;
 import org.miaixz.bus.core.lang.Symbol;
 import org.miaixz.bus.logger.Logger;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -49,24 +47,15 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class ZookeeperHitting implements Hitting {
 
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
-        Thread thread = new Thread(r);
-        thread.setName("cache:zk-uploader");
-        thread.setDaemon(true);
-        return thread;
-    });
-
     private static final String NAME_SPACE = "cache";
 
-    private volatile boolean isShutdown = false;
-
-    private BlockingQueue<CachePair<String, Integer>> hitQueue = new LinkedTransferQueue<>();
+    private Map<String, DistributedAtomicLong> hitCounterMap = new ConcurrentHashMap<>();
 
-    private BlockingQueue<CachePair<String, Integer>> requireQueue = new LinkedTransferQueue<>();
+    private Map<String, DistributedAtomicLong> requireCounterMap = new ConcurrentHashMap<>();
 
-    private Map<String, DistributedAtomicLong> hitCounterMap = new HashMap<>();
+    private final long flushInterval;
 
-    private Map<String, DistributedAtomicLong> requireCounterMap = new HashMap<>();
+    private volatile HitCounter counter;
 
     private CuratorFramework client;
 
@@ -79,6 +68,15 @@ public class ZookeeperHitting implements Hitting {
     }
 
     public ZookeeperHitting(String zkServer, String productName) {
+        this(zkServer, productName, HitCounter.DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param zkServer      zookeeper地址
+     * @param productName   产品名称, 作为计数节点的前缀
+     * @param flushInterval 内存计数批量上传的间隔(ms)
+     */
+    public ZookeeperHitting(String zkServer, String productName, long flushInterval) {
         this.client = CuratorFrameworkFactory.builder()
                 .connectString(zkServer)
                 .retryPolicy(new RetryNTimes(3, 0))
@@ -98,24 +96,17 @@ public class ZookeeperHitting implements Hitting {
             throw new RuntimeException("create path: " + hitPathPrefix + ", " + requirePathPrefix + " on namespace: " + NAME_SPACE + " error", e);
         }
 
-        executor.submit(() -> {
-            while (!isShutdown) {
-                dumpToZK(hitQueue, hitCounterMap, hitPathPrefix);
-                dumpToZK(requireQueue, requireCounterMap, requirePathPrefix);
-            }
-        });
+        this.flushInterval = flushInterval;
     }
 
     @Override
     public void hitIncr(String pattern, int count) {
-        if (count != 0)
-            hitQueue.add(CachePair.of(pattern, count));
+        counter().hitIncr(pattern, count);
     }
 
     @Override
     public void reqIncr(String pattern, int count) {
-        if (count != 0)
-            requireQueue.add(CachePair.of(pattern, count));
+        counter().reqIncr(pattern, count);
     }
 
     @Override
@@ -143,28 +134,50 @@ public class ZookeeperHitting implements Hitting {
         return result;
     }
 
+    @Override
+    public Map<String, Hitting.HittingDO> snapshot() {
+        return counter().snapshot(summaryName());
+    }
+
     @Override
     public void reset(String pattern) {
+        counter().reset(pattern);
         hitCounterMap.computeIfPresent(pattern, this::doReset);
         requireCounterMap.computeIfPresent(pattern, this::doReset);
     }
 
     @Override
     public void resetAll() {
+        counter().resetAll();
         hitCounterMap.forEach(this::doReset);
         requireCounterMap.forEach(this::doReset);
     }
 
     @PreDestroy
     public void tearDown() {
-        while (hitQueue.size() > 0 || requireQueue.size() > 0) {
-            try {
-                TimeUnit.SECONDS.sleep(1);
-            } catch (InterruptedException ignored) {
-            }
+        HitCounter counter = this.counter;
+        if (null != counter) {
+            counter.close();
         }
+    }
 
-        isShutdown = true;
+    /**
+     * 首次使用时创建并启动计数器, 避免构造期间将未构造完成的实例交给刷新线程
+     */
+    private HitCounter counter() {
+        HitCounter counter = this.counter;
+        if (null == counter) {
+            synchronized (this) {
+                counter = this.counter;
+                if (null == counter) {
+                    counter = new HitCounter(flushInterval,
+                            (pattern, count) -> dumpToZK(hitCounterMap, hitPathPrefix, pattern, count),
+                            (pattern, count) -> dumpToZK(requireCounterMap, requirePathPrefix, pattern, count)).start();
+                    this.counter = counter;
+                }
+            }
+        }
+        return counter;
     }
 
     private String processProductName(String productName) {
@@ -189,28 +202,13 @@ public class ZookeeperHitting implements Hitting {
         return null;
     }
 
-    private void dumpToZK(BlockingQueue<CachePair<String, Integer>> queue, Map<String, DistributedAtomicLong> counterMap, String zkPrefix) {
-        long count = 0;
-        CachePair<String, Integer> head;
-
-        // 将queue中所有的 || 前100条数据聚合到一个暂存Map中
-        Map<String, AtomicLong> holdMap = new HashMap<>();
-        while (null != (head = queue.poll()) && count <= 100) {
-            holdMap
-                    .computeIfAbsent(head.getLeft(), (key) -> new AtomicLong(0L))
-                    .addAndGet(head.getRight());
-            ++count;
+    private void dumpToZK(Map<String, DistributedAtomicLong> counterMap, String zkPrefix, String pattern, long count) throws Exception {
+        String zkPath = String.format("%s/%s", zkPrefix, pattern);
+        DistributedAtomicLong counter = counterMap.computeIfAbsent(pattern, (key) -> new DistributedAtomicLong(client, zkPath, new RetryNTimes(10, 10)));
+        AtomicValue<Long> result = counter.add(count);
+        if (!result.succeeded()) {
+            throw new IllegalStateException("add distribute counter: " + zkPath + " failed");
         }
-
-        holdMap.forEach((pattern, atomicCount) -> {
-            String zkPath = String.format("%s/%s", zkPrefix, pattern);
-            DistributedAtomicLong counter = counterMap.computeIfAbsent(pattern, (key) -> new DistributedAtomicLong(client, zkPath, new RetryNTimes(10, 10)));
-            try {
-                counter.add(atomicCount.get()).postValue();
-            } catch (Exception e) {
-                Logger.error(e, "dump data from queue to zookeeper error: ", e.getMessage());
-            }
-        });
     }
 
     private long getValue(Object value) throws Exception {
@@ -0,0 +1,596 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.cache.serialize;
+
+import org.miaixz.bus.core.lang.Normal;
+import org.miaixz.bus.core.lang.exception.InternalException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑的二进制序列化: 常用类型按标签编码, 通过{@link #register(Class, int)}注册的类型按字段结构编码(不写类名),
+ * 其余{@link java.io.Serializable}对象退回JDK序列化
+ * <p>
+ * 结果的首字节为格式头: {@link #HEADER_RAW}表示未压缩, {@link #HEADER_DEFLATE}表示超过阈值后经Deflate压缩;
+ * 两者不会出现在JDK、Hessian2及JSON序列化结果的首字节, 首字节不是格式头的数据交给兼容序列化器处理,
+ * 因此迁移期间新旧数据可以在同一个缓存中共存
+ * <p>
+ * 注册的类型需要无参构造器, 各节点需使用相同的类型编号, 注册应在使用前完成
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class BinarySerializer extends AbstractSerializer {
+
+    /**
+     * 格式头: 未压缩
+     */
+    public static final byte HEADER_RAW = 0x40;
+    /**
+     * 格式头: Deflate压缩
+     */
+    public static final byte HEADER_DEFLATE = 0x45;
+    /**
+     * 默认压缩阈值(字节)
+     */
+    public static final int DEFAULT_COMPRESS_THRESHOLD = Normal._1024;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte CHAR = 9;
+    private static final byte STRING = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte SET = 13;
+    private static final byte MAP = 14;
+    private static final byte DATE = 15;
+    private static final byte BIG_DECIMAL = 16;
+    private static final byte BIG_INTEGER = 17;
+    private static final byte REGISTERED = 18;
+    private static final byte REGISTERED_ENUM = 19;
+    private static final byte JDK = 20;
+
+    private final Map<Class<?>, Schema> schemas = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Schema> schemaIds = new ConcurrentHashMap<>();
+
+    private final int compressThreshold;
+
+    private final BaseSerializer fallback;
+
+    private final JdkSerializer jdkSerializer = new JdkSerializer();
+
+    public BinarySerializer() {
+        this(DEFAULT_COMPRESS_THRESHOLD);
+    }
+
+    public BinarySerializer(int compressThreshold) {
+        this(compressThreshold, new JdkSerializer());
+    }
+
+    /**
+     * @param compressThreshold 编码后超过该字节数时压缩, 小于0表示不压缩
+     * @param fallback          读取不带格式头的旧数据时使用的序列化器
+     */
+    public BinarySerializer(int compressThreshold, BaseSerializer fallback) {
+        this.compressThreshold = compressThreshold;
+        this.fallback = fallback;
+    }
+
+    /**
+     * 注册类型, 注册后该类型按字段编码
+     * 类型与编号一一对应, 重复注册相同的类型与编号时忽略
+     *
+     * @param type 类型, 枚举或带无参构造器的类
+     * @param id   类型编号, 各节点必须一致
+     * @return this
+     */
+    public synchronized BinarySerializer register(Class<?> type, int id) {
+        Schema registered = schemas.get(type);
+        if (null != registered) {
+            if (registered.id != id) {
+                throw new IllegalArgumentException(type.getName() + " already registered with type id " + registered.id);
+            }
+            return this;
+        }
+        Schema exists = schemaIds.get(id);
+        if (null != exists) {
+            throw new IllegalArgumentException("type id " + id + " already registered by " + exists.type.getName());
+        }
+        Schema schema = new Schema(type, id);
+        schemaIds.put(id, schema);
+        schemas.put(type, schema);
+        return this;
+    }
+
+    @Override
+    protected byte[] doSerialize(Object object) throws Throwable {
+        Output out = new Output(Normal._128);
+        out.write(HEADER_RAW);
+        writeValue(out, object);
+
+        int length = out.position - 1;
+        if (compressThreshold < 0 || length <= compressThreshold) {
+            return out.toByteArray();
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(out.buffer, 1, length);
+            deflater.finish();
+            Output compressed = new Output(length / 2 + 16);
+            compressed.write(HEADER_DEFLATE);
+            compressed.writeVarInt(length);
+            while (!deflater.finished()) {
+                compressed.ensure(Normal._512);
+                compressed.position += deflater.deflate(compressed.buffer, compressed.position, compressed.buffer.length - compressed.position);
+            }
+            // 压缩收益不足时保留原始数据
+            return compressed.position < out.position ? compressed.toByteArray() : out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    protected Object doDeserialize(byte[] bytes) throws Throwable {
+        if (bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == HEADER_RAW) {
+            Input in = new Input(bytes, 1);
+            return readValue(in);
+        }
+        if (bytes[0] == HEADER_DEFLATE) {
+            Input in = new Input(bytes, 1);
+            return readValue(new Input(inflate(bytes, in), 0));
+        }
+
+        return fallback.deserialize(bytes);
+    }
+
+    private static byte[] inflate(byte[] bytes, Input in) throws DataFormatException {
+        int length = in.readVarInt();
+        if (length < 0) {
+            throw new DataFormatException("invalid payload length: " + length);
+        }
+        byte[] raw = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, in.position, bytes.length - in.position);
+            int offset = 0;
+            while (offset < length) {
+                int n = inflater.inflate(raw, offset, length - offset);
+                // 输入已全部提供, 无输出即无法继续推进(数据截断、结束或要求预设字典), 避免死循环
+                if (n == 0) {
+                    throw new DataFormatException(inflater.needsDictionary() ? "unexpected preset dictionary" : "truncated payload");
+                }
+                offset += n;
+            }
+            return raw;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void writeValue(Output out, Object value) throws IllegalAccessException {
+        if (null == value) {
+            out.write(NULL);
+            return;
+        }
+
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            out.write(STRING);
+            out.writeString((String) value);
+        } else if (type == Integer.class) {
+            out.write(INT);
+            out.writeVarLong((Integer) value);
+        } else if (type == Long.class) {
+            out.write(LONG);
+            out.writeVarLong((Long) value);
+        } else if (type == Boolean.class) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else if (type == Double.class) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (type == Float.class) {
+            out.write(FLOAT);
+            out.writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (type == Byte.class) {
+            out.write(BYTE);
+            out.write((Byte) value);
+        } else if (type == Short.class) {
+            out.write(SHORT);
+            out.writeVarLong((Short) value);
+        } else if (type == Character.class) {
+            out.write(CHAR);
+            out.writeVarInt((Character) value);
+        } else if (type == byte[].class) {
+            byte[] bytes = (byte[]) value;
+            out.write(BYTES);
+            out.writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        } else if (type == Date.class) {
+            out.write(DATE);
+            out.writeVarLong(((Date) value).getTime());
+        } else if (type == BigDecimal.class) {
+            out.write(BIG_DECIMAL);
+            out.writeString(value.toString());
+        } else if (type == BigInteger.class) {
+            out.write(BIG_INTEGER);
+            out.writeString(value.toString());
+        } else if (type == ArrayList.class) {
+            List<?> list = (List<?>) value;
+            out.write(LIST);
+            out.writeVarInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (type == HashSet.class || type == LinkedHashSet.class) {
+            Set<?> set = (Set<?>) value;
+            out.write(SET);
+            out.writeVarInt(set.size());
+            for (Object element : set) {
+                writeValue(out, element);
+            }
+        } else if (type == HashMap.class || type == LinkedHashMap.class) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.write(MAP);
+            out.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            Schema schema = schemas.get(type);
+            if (null == schema && type.isAnonymousClass() && null != type.getSuperclass() && type.getSuperclass().isEnum()) {
+                schema = schemas.get(type.getSuperclass());
+            }
+            if (null != schema && schema.type.isEnum()) {
+                out.write(REGISTERED_ENUM);
+                out.writeVarInt(schema.id);
+                out.writeVarInt(((Enum<?>) value).ordinal());
+            } else if (null != schema) {
+                out.write(REGISTERED);
+                out.writeVarInt(schema.id);
+                for (Field field : schema.fields) {
+                    writeValue(out, field.get(value));
+                }
+            } else {
+                byte[] bytes = jdkSerializer.doSerialize(value);
+                out.write(JDK);
+                out.writeVarInt(bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    private Object readValue(Input in) throws ReflectiveOperationException {
+        byte tag = in.read();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTE:
+                return in.read();
+            case SHORT:
+                return (short) in.readVarLong();
+            case INT:
+                return (int) in.readVarLong();
+            case LONG:
+                return in.readVarLong();
+            case FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case CHAR:
+                return (char) in.readVarInt();
+            case STRING:
+                return in.readString();
+            case BYTES:
+                return in.readBytes(in.readVarInt());
+            case DATE:
+                return new Date(in.readVarLong());
+            case BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case BIG_INTEGER:
+                return new BigInteger(in.readString());
+            case LIST: {
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case SET: {
+                int size = in.readVarInt();
+                Set<Object> set = new LinkedHashSet<>(Math.max((int) (size / .75f) + 1, 16));
+                for (int i = 0; i < size; ++i) {
+                    set.add(readValue(in));
+                }
+                return set;
+            }
+            case MAP: {
+                int size = in.readVarInt();
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max((int) (size / .75f) + 1, 16));
+                for (int i = 0; i < size; ++i) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            }
+            case REGISTERED_ENUM:
+                return getSchema(in.readVarInt()).type.getEnumConstants()[in.readVarInt()];
+            case REGISTERED: {
+                Schema schema = getSchema(in.readVarInt());
+                Object object = schema.constructor.newInstance();
+                for (Field field : schema.fields) {
+                    field.set(object, readValue(in));
+                }
+                return object;
+            }
+            case JDK:
+                return jdkSerializer.doDeserialize(in.readBytes(in.readVarInt()));
+            default:
+                throw new InternalException("unknown binary tag: " + tag);
+        }
+    }
+
+    private Schema getSchema(int id) {
+        Schema schema = schemaIds.get(id);
+        if (null == schema) {
+            throw new InternalException("unregistered binary type id: " + id);
+        }
+        return schema;
+    }
+
+    /**
+     * 已注册类型的结构: 按声明类由父到子、字段名排序的非static、非transient字段
+     */
+    private static final class Schema {
+
+        private final Class<?> type;
+
+        private final int id;
+
+        private final Constructor<?> constructor;
+
+        private final Field[] fields;
+
+        private Schema(Class<?> type, int id) {
+            if (id < 0) {
+                throw new IllegalArgumentException("type id must not be negative: " + id);
+            }
+            this.type = type;
+            this.id = id;
+            if (type.isEnum()) {
+                this.constructor = null;
+                this.fields = new Field[0];
+                return;
+            }
+
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + " has no default constructor", e);
+            }
+
+            LinkedList<Class<?>> hierarchy = new LinkedList<>();
+            for (Class<?> clazz = type; null != clazz && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                hierarchy.addFirst(clazz);
+            }
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> clazz : hierarchy) {
+                Field[] declared = clazz.getDeclaredFields();
+                Arrays.sort(declared, Comparator.comparing(Field::getName));
+                for (Field field : declared) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            this.fields = fields.toArray(new Field[0]);
+        }
+    }
+
+    private static final class Output {
+
+        private byte[] buffer;
+
+        private int position;
+
+        private Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        private void ensure(int required) {
+            if (position + required > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + required));
+            }
+        }
+
+        private void write(byte value) {
+            ensure(1);
+            buffer[position++] = value;
+        }
+
+        private void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        private void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        /**
+         * zigzag编码, 绝对值小的负数同样只占少量字节
+         */
+        private void writeVarLong(long value) {
+            ensure(10);
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        private void writeInt(int value) {
+            ensure(4);
+            for (int i = 0; i < 4; ++i) {
+                buffer[position++] = (byte) (value >>> (i << 3));
+            }
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int i = 0; i < 8; ++i) {
+                buffer[position++] = (byte) (value >>> (i << 3));
+            }
+        }
+
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+
+        private int position;
+
+        private Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private byte read() {
+            if (position >= buffer.length) {
+                throw new InternalException("unexpected end of binary payload");
+            }
+            return buffer[position++];
+        }
+
+        private int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = read();
+                result |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new InternalException("malformed varint");
+        }
+
+        private long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = read();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new InternalException("malformed varlong");
+        }
+
+        private int readInt() {
+            int value = 0;
+            for (int i = 0; i < 4; ++i) {
+                value |= (read() & 0xFF) << (i << 3);
+            }
+            return value;
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; ++i) {
+                value |= (read() & 0xFFL) << (i << 3);
+            }
+            return value;
+        }
+
+        private byte[] readBytes(int length) {
+            if (length < 0 || position + length > buffer.length) {
+                throw new InternalException("unexpected end of binary payload");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private String readString() {
+            int length = readVarInt();
+            if (length < 0 || position + length > buffer.length) {
+                throw new InternalException("unexpected end of binary payload");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+
+}
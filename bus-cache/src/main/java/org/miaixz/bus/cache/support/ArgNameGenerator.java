@@ -42,6 +42,7 @@ public class ArgNameGenerator {
 
     private static final String X_ARGS_PREFIX = "args";
     private static final ConcurrentMap<Method, String[]> methodParameterNames = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Integer, String[]> xArgNames = new ConcurrentHashMap<>();
     private static String[] X_ARGS = {
             X_ARGS_PREFIX + 0,
             X_ARGS_PREFIX + 1,
@@ -77,12 +78,14 @@ public class ArgNameGenerator {
             return Normal.EMPTY_STRING_ARRAY;
         }
 
-        String[] xArgs = new String[valueSize];
-        for (int i = 0; i < valueSize; ++i) {
-            xArgs[i] = i < X_ARGS.length ? X_ARGS[i] : X_ARGS_PREFIX + i;
-        }
-
-        return xArgs;
+        // 按参数个数缓存, 避免每次计算spel都重新生成
+        return xArgNames.computeIfAbsent(valueSize, size -> {
+            String[] xArgs = new String[size];
+            for (int i = 0; i < size; ++i) {
+                xArgs[i] = i < X_ARGS.length ? X_ARGS[i] : X_ARGS_PREFIX + i;
+            }
+            return xArgs;
+        });
     }
 
     // Java 8 之后提供了获取参数名方法, 但需要编译时添加`–parameters`参数支持, 如`javac –parameters`, 不然参数名为'arg0'
@@ -114,7 +114,10 @@ public class CacheInfoContainer {
         return builder
                 .setCache(cached.value())
                 .setPrefix(cached.prefix())
-                .setExpire(cached.expire());
+                .setExpire(cached.expire())
+                .setCoalesce(cached.coalesce())
+                .setCoalesceTimeout(cached.coalesceTimeout())
+                .setRefreshAhead(cached.refreshAhead());
     }
 
     private static AnnoHolder.Builder scanCachedGet(AnnoHolder.Builder builder, CachedGet cachedGet) {
@@ -27,20 +27,40 @@ package org.miaixz.bus.cache.support;
 
 import org.miaixz.bus.core.lang.Assert;
 import org.miaixz.bus.core.xyz.StringKit;
-import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Spel表达式的计算功能(@Cached内的condition、@CacheKey内的spel只是作为一个增值服务, 并不作为核心功能, 只是作为key拼装的一个亮点, 并不是必须功能)
+ * <p>
+ * 解析后的表达式按照spel字符串缓存, 并开启{@link SpelCompilerMode#MIXED}编译模式, 多次执行后编译为字节码, 编译失败时自动退回解释执行;
+ * 每次计算使用独立的{@link StandardEvaluationContext}, 但共享反射访问器, 以复用其内部的反射缓存
  *
  * @author Kimi Liu
  * @since Java 17+
  */
 public class SpelCalculator {
 
-    private static final ExpressionParser parser = new SpelExpressionParser();
+    private static final ExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, SpelCalculator.class.getClassLoader()));
+
+    private static final ConcurrentMap<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    private static final List<PropertyAccessor> propertyAccessors = List.of(new ReflectivePropertyAccessor());
+
+    private static final List<MethodResolver> methodResolvers = List.of(new ReflectiveMethodResolver());
 
     public static Object calcSpelValueWithContext(String spel, String[] argNames, Object[] argValues, Object defaultValue) {
         if (StringKit.isEmpty(spel)) {
@@ -48,7 +68,9 @@ public class SpelCalculator {
         }
 
         // 将[参数名->参数值]导入spel环境
-        EvaluationContext context = new StandardEvaluationContext();
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setPropertyAccessors(propertyAccessors);
+        context.setMethodResolvers(methodResolvers);
 
         Assert.isTrue(argNames.length == argValues.length);
         for (int i = 0; i < argValues.length; ++i) {
@@ -59,7 +81,7 @@ public class SpelCalculator {
             context.setVariable(xArgNames[i], argValues[i]);
         }
 
-        return parser.parseExpression(spel).getValue(context);
+        return getExpression(spel).getValue(context);
     }
 
     public static Object calcSpelWithNoContext(String spel, Object defaultValue) {
@@ -67,7 +89,11 @@ public class SpelCalculator {
             return defaultValue;
         }
 
-        return parser.parseExpression(spel).getValue(defaultValue);
+        return getExpression(spel).getValue(defaultValue);
+    }
+
+    private static Expression getExpression(String spel) {
+        return expressions.computeIfAbsent(spel, parser::parseExpression);
     }
 
 }
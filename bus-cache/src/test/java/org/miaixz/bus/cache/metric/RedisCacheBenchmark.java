@@ -0,0 +1,260 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.cache.metric;
+
+import org.miaixz.bus.cache.magic.CacheExpire;
+import org.miaixz.bus.cache.serialize.BinarySerializer;
+import org.miaixz.bus.core.xyz.IoKit;
+import org.openjdk.jmh.annotations.*;
+import redis.clients.jedis.JedisPool;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Redis批量读写往返基准
+ * 在进程内启动一个仅支持GET/SET/PSETEX/MGET/MSET的RESP服务作为Redis替身, 每次向客户端回写响应前等待给定的模拟往返时延,
+ * 对比逐个key读写与{@link RedisCache}批量读写(分片+pipeline)的耗时
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:[依赖] org.openjdk.jmh.Main RedisCacheBenchmark
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisCacheBenchmark {
+
+    /**
+     * key数量
+     */
+    @Param({"100", "1000"})
+    int size;
+
+    /**
+     * 模拟往返时延(us)
+     */
+    @Param({"200"})
+    long rttMicros;
+
+    StandIn standIn;
+    RedisCache cache;
+    Map<String, Object> keyValues;
+    List<String> keys;
+
+    @Setup
+    public void setup() throws IOException {
+        standIn = new StandIn(rttMicros);
+        cache = new RedisCache(new JedisPool("127.0.0.1", standIn.getPort()), new BinarySerializer());
+        keyValues = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            keyValues.put("bench:" + i, i);
+        }
+        keys = new ArrayList<>(keyValues.keySet());
+        cache.write(keyValues, CacheExpire.FOREVER);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.tearDown();
+        standIn.close();
+    }
+
+    @Benchmark
+    public void writePerKey() {
+        keyValues.forEach((key, value) -> cache.write(key, value, CacheExpire.ONE_MIN));
+    }
+
+    @Benchmark
+    public void writeBatch() {
+        cache.write(keyValues, CacheExpire.ONE_MIN);
+    }
+
+    @Benchmark
+    public void writeBatchForever() {
+        cache.write(keyValues, CacheExpire.FOREVER);
+    }
+
+    @Benchmark
+    public int readPerKey() {
+        int found = 0;
+        for (String key : keys) {
+            if (null != cache.read(key)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Map<String, Object> readBatch() {
+        return cache.read(keys);
+    }
+
+    /**
+     * 最小化的RESP服务, 服务端读完客户端已发送的全部命令后统一回写响应, 即一次往返
+     */
+    private static class StandIn implements Closeable {
+
+        private final Map<String, byte[]> data = new ConcurrentHashMap<>();
+        private final ServerSocket serverSocket;
+        private final long rttNanos;
+
+        StandIn(long rttMicros) throws IOException {
+            this.rttNanos = TimeUnit.MICROSECONDS.toNanos(rttMicros);
+            this.serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        Thread worker = new Thread(() -> serve(socket), "redis-stand-in");
+                        worker.setDaemon(true);
+                        worker.start();
+                    } catch (IOException ignored) {
+                        // 已关闭
+                    }
+                }
+            }, "redis-stand-in-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 InputStream in = new BufferedInputStream(socket.getInputStream());
+                 OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+                while (true) {
+                    List<byte[]> command = readCommand(in);
+                    if (null == command) {
+                        return;
+                    }
+                    execute(command, out);
+                    if (in.available() == 0) {
+                        LockSupport.parkNanos(rttNanos);
+                        out.flush();
+                    }
+                }
+            } catch (IOException ignored) {
+                // 客户端断开
+            }
+        }
+
+        private void execute(List<byte[]> command, OutputStream out) throws IOException {
+            String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "GET" -> writeBulk(out, data.get(key(command, 1)));
+                case "SET", "PSETEX" -> {
+                    data.put(key(command, 1), command.get(command.size() - 1));
+                    writeLine(out, "+OK");
+                }
+                case "MSET" -> {
+                    for (int i = 1; i < command.size(); i += 2) {
+                        data.put(key(command, i), command.get(i + 1));
+                    }
+                    writeLine(out, "+OK");
+                }
+                case "MGET" -> {
+                    writeLine(out, "*" + (command.size() - 1));
+                    for (int i = 1; i < command.size(); i++) {
+                        writeBulk(out, data.get(key(command, i)));
+                    }
+                }
+                default -> writeLine(out, "+OK");
+            }
+        }
+
+        private static String key(List<byte[]> command, int index) {
+            return new String(command.get(index), StandardCharsets.UTF_8);
+        }
+
+        private static List<byte[]> readCommand(InputStream in) throws IOException {
+            String header = readLine(in);
+            if (null == header) {
+                return null;
+            }
+            int count = Integer.parseInt(header.substring(1));
+            List<byte[]> command = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Integer.parseInt(readLine(in).substring(1));
+                command.add(in.readNBytes(length));
+                in.skipNBytes(2);
+            }
+            return command;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c < 0) {
+                    return null;
+                }
+                line.append((char) c);
+            }
+            in.read();
+            return line.toString();
+        }
+
+        private static void writeLine(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private static void writeBulk(OutputStream out, byte[] value) throws IOException {
+            if (null == value) {
+                writeLine(out, "$-1");
+                return;
+            }
+            writeLine(out, "$" + value.length);
+            out.write(value);
+            out.write('\r');
+            out.write('\n');
+        }
+
+        @Override
+        public void close() {
+            IoKit.close(serverSocket);
+        }
+
+    }
+
+}
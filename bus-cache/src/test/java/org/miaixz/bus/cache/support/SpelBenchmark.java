@@ -0,0 +1,101 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.cache.support;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spel计算开销基准
+ * 对比每次调用都解析表达式并创建默认上下文(优化前)与{@link SpelCalculator}(缓存并编译表达式)的单次调用耗时
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:[依赖] org.openjdk.jmh.Main SpelBenchmark
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SpelBenchmark {
+
+    private static final String SPEL = "#user.id + ':' + #user.name + ':' + #type";
+
+    private static final String[] ARG_NAMES = {"user", "type"};
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    private final Object[] argValues = {new User(10086L, "miaixz"), "vip"};
+
+    @Benchmark
+    public Object parsePerCall() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        String[] xArgNames = ArgNameGenerator.getXArgNames(argValues.length);
+        for (int i = 0; i < argValues.length; ++i) {
+            context.setVariable(ARG_NAMES[i], argValues[i]);
+            context.setVariable(xArgNames[i], argValues[i]);
+        }
+        return parser.parseExpression(SPEL).getValue(context);
+    }
+
+    @Benchmark
+    public Object spelCalculator() {
+        return SpelCalculator.calcSpelValueWithContext(SPEL, ARG_NAMES, argValues, null);
+    }
+
+    public static class User {
+
+        private final long id;
+
+        private final String name;
+
+        public User(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+    }
+
+}
@@ -28,7 +28,9 @@ package org.miaixz.bus.core.cache.provider;
 import org.miaixz.bus.core.cache.Cache;
 import org.miaixz.bus.core.cache.CacheListener;
 import org.miaixz.bus.core.center.function.SupplierX;
+import org.miaixz.bus.core.center.map.concurrent.EntryWeigher;
 import org.miaixz.bus.core.center.map.concurrent.SafeConcurrentHashMap;
+import org.miaixz.bus.core.lang.Assert;
 import org.miaixz.bus.core.lang.mutable.Mutable;
 import org.miaixz.bus.core.lang.mutable.MutableObject;
 
@@ -92,6 +94,19 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     protected CacheListener<K, V> listener;
 
+    /**
+     * 权重计算器，{@code null}表示只按照对象数量限制容量
+     */
+    protected EntryWeigher<? super K, ? super V> weigher;
+    /**
+     * 最大总权重，仅在设置权重计算器时有效
+     */
+    protected long maxWeight;
+    /**
+     * 当前总权重
+     */
+    protected LongAdder weightedSize = new LongAdder();
+
     @Override
     public void put(final K key, final V object) {
         put(key, object, timeout);
@@ -103,8 +118,9 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      * @param key     键
      * @param object  值
      * @param timeout 超时时长
+     * @return 加入的缓存对象
      */
-    protected void putWithoutLock(final K key, final V object, final long timeout) {
+    protected CacheObject<K, V> putWithoutLock(final K key, final V object, final long timeout) {
         final CacheObject<K, V> co = new CacheObject<>(key, object, timeout);
         if (timeout != 0) {
             existCustomTimeout = true;
@@ -112,7 +128,60 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         if (isFull()) {
             pruneCache();
         }
-        cacheMap.put(MutableObject.of(key), co);
+        if (null == weigher) {
+            cacheMap.put(MutableObject.of(key), co);
+            return co;
+        }
+
+        co.weight = weightOf(key, object);
+        final CacheObject<K, V> old = cacheMap.put(MutableObject.of(key), co);
+        weightedSize.add(null == old ? co.weight : co.weight - old.weight);
+        pruneByWeight(co);
+        return co;
+    }
+
+    /**
+     * 计算对象的权重，权重必须至少为1
+     *
+     * @param key    键
+     * @param object 值
+     * @return 权重
+     */
+    protected int weightOf(final K key, final V object) {
+        final int weight = weigher.weightOf(key, object);
+        Assert.isTrue(weight >= 1, "Weight of key {} must be at least 1, but was {}", key, weight);
+        return weight;
+    }
+
+    /**
+     * 总权重超出限制时，按照{@link #weightEvictionCandidate(CacheObject)}的顺序逐个淘汰对象
+     *
+     * @param inserted 新加入的对象，仅在没有其它对象可淘汰时才淘汰
+     */
+    protected void pruneByWeight(final CacheObject<K, V> inserted) {
+        CacheObject<K, V> co;
+        while (weightedSize.sum() > maxWeight && null != (co = weightEvictionCandidate(inserted))) {
+            removeWithoutLock(co.key);
+            onRemove(co.key, co.obj);
+        }
+    }
+
+    /**
+     * 查找按权重淘汰时的候选对象，默认为迭代顺序中的第一个对象
+     * 对于基于{@link java.util.LinkedHashMap}的缓存，即为最先加入或最久未使用的对象
+     *
+     * @param inserted 新加入的对象
+     * @return 候选对象，{@code null}表示没有可淘汰的对象
+     */
+    protected CacheObject<K, V> weightEvictionCandidate(final CacheObject<K, V> inserted) {
+        final Iterator<CacheObject<K, V>> values = cacheMap.values().iterator();
+        while (values.hasNext()) {
+            final CacheObject<K, V> co = values.next();
+            if (co != inserted) {
+                return co;
+            }
+        }
+        return cacheMap.isEmpty() ? null : inserted;
     }
 
     /**
@@ -129,6 +198,37 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         return missCount.sum();
     }
 
+    /**
+     * @return 当前总权重，未设置权重计算器时等同于对象数量
+     */
+    public long getWeightedSize() {
+        return null == weigher ? size() : weightedSize.sum();
+    }
+
+    /**
+     * @return 最大总权重，{@code 0}表示未按权重限制容量
+     */
+    public long getMaxWeight() {
+        return null == weigher ? 0 : maxWeight;
+    }
+
+    /**
+     * 设置权重计算器及最大总权重，设置后缓存按照对象的权重之和淘汰，例如按照字节数限制缓存占用的内存
+     * 按权重淘汰与按数量限制的{@code capacity}同时生效，需在缓存加入对象之前设置
+     *
+     * @param maxWeight 最大总权重，必须大于0
+     * @param weigher   权重计算器，每个对象的权重至少为1
+     * @return this
+     */
+    public AbstractCache<K, V> setWeigher(final long maxWeight, final EntryWeigher<? super K, ? super V> weigher) {
+        Assert.isTrue(maxWeight > 0, "maxWeight must be greater than 0");
+        Assert.notNull(weigher);
+        Assert.state(isEmpty(), "Weigher must be set before any entry is cached");
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        return this;
+    }
+
     @Override
     public V get(final K key, final boolean isUpdateLastAccess, final SupplierX<V> supplier) {
         return get(key, isUpdateLastAccess, this.timeout, supplier);
@@ -267,7 +367,19 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      * @return 移除的对象，无返回null
      */
     protected CacheObject<K, V> removeWithoutLock(final K key) {
-        return cacheMap.remove(MutableObject.of(key));
+        final CacheObject<K, V> co = cacheMap.remove(MutableObject.of(key));
+        if (null != co && null != weigher) {
+            weightedSize.add(-co.weight);
+        }
+        return co;
+    }
+
+    /**
+     * 清空缓存，不加锁
+     */
+    protected void clearWithoutLock() {
+        cacheMap.clear();
+        weightedSize.reset();
     }
 
     /**
@@ -276,7 +388,31 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      * @return {@link Iterator}
      */
     protected Iterator<CacheObject<K, V>> cacheObjIter() {
-        return this.cacheMap.values().iterator();
+        final Iterator<CacheObject<K, V>> values = this.cacheMap.values().iterator();
+        if (null == weigher) {
+            return values;
+        }
+        // 通过迭代器移除对象时同步扣减权重
+        return new Iterator<>() {
+            private CacheObject<K, V> current;
+
+            @Override
+            public boolean hasNext() {
+                return values.hasNext();
+            }
+
+            @Override
+            public CacheObject<K, V> next() {
+                current = values.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                values.remove();
+                weightedSize.add(-current.weight);
+            }
+        };
     }
 
 }
@@ -57,6 +57,10 @@ public class CacheObject<K, V> implements Serializable {
      * 访问次数
      */
     protected AtomicLong accessCount = new AtomicLong();
+    /**
+     * 权重，仅在缓存设置了权重计算器时计算
+     */
+    protected int weight = 1;
 
     /**
      * 构造
@@ -99,6 +103,15 @@ public class CacheObject<K, V> implements Serializable {
         return this.ttl;
     }
 
+    /**
+     * 获取权重
+     *
+     * @return 权重
+     */
+    public int getWeight() {
+        return this.weight;
+    }
+
     /**
      * 获取过期时间，返回{@code null}表示永不过期
      *
@@ -0,0 +1,220 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.core.cache.provider;
+
+import org.miaixz.bus.core.center.iterator.CopiedIterator;
+import org.miaixz.bus.core.center.map.concurrent.ConcurrentLinkedHashMap;
+import org.miaixz.bus.core.center.map.concurrent.EntryWeigher;
+import org.miaixz.bus.core.lang.mutable.Mutable;
+import org.miaixz.bus.core.lang.mutable.MutableObject;
+
+import java.util.Iterator;
+
+/**
+ * 无锁的LRU (least recently used)最近最久未使用缓存
+ * 与{@link LRUCache}不同，此缓存基于{@link ConcurrentLinkedHashMap}，读操作不再获取全局锁：
+ * <ul>
+ *     <li>数据存储于分段的{@code ConcurrentHashMap}中，读写互不阻塞</li>
+ *     <li>访问记录先写入按线程分片的读缓冲区，由任意线程在达到阈值后尝试批量异步回放到LRU链表</li>
+ *     <li>容量超出时由Map自身按LRU顺序淘汰，并通过{@link org.miaixz.bus.core.cache.CacheListener}通知</li>
+ * </ul>
+ * 适用于高并发、读多写少的场景，LRU顺序为近似顺序。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class ConcurrentLRUCache<K, V> extends AbstractCache<K, V> {
+
+    private static final long serialVersionUID = -1L;
+
+    /**
+     * 构造
+     * 默认无超时
+     *
+     * @param capacity 容量，{@code 0}表示无大小限制
+     */
+    public ConcurrentLRUCache(final int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * 构造
+     *
+     * @param capacity 容量，{@code 0}表示无大小限制
+     * @param timeout  默认超时时间，单位：毫秒
+     */
+    public ConcurrentLRUCache(final int capacity, final long timeout) {
+        this.capacity = capacity;
+        this.timeout = timeout;
+
+        this.cacheMap = buildMap(capacity > 0 ? capacity : Long.MAX_VALUE, null);
+    }
+
+    /**
+     * 设置权重计算器及最大总权重，淘汰由{@link ConcurrentLinkedHashMap}按照总权重完成
+     * 设置后容量完全按权重计算，{@code capacity}不再生效
+     *
+     * @param maxWeight 最大总权重，必须大于0
+     * @param weigher   权重计算器，每个对象的权重至少为1
+     * @return this
+     */
+    @Override
+    public ConcurrentLRUCache<K, V> setWeigher(final long maxWeight, final EntryWeigher<? super K, ? super V> weigher) {
+        super.setWeigher(maxWeight, weigher);
+        this.cacheMap = buildMap(maxWeight, weigher);
+        return this;
+    }
+
+    @Override
+    public long getWeightedSize() {
+        return ((ConcurrentLinkedHashMap<Mutable<K>, CacheObject<K, V>>) cacheMap).weightedSize();
+    }
+
+    @Override
+    public void put(final K key, final V object, final long timeout) {
+        if (timeout != 0) {
+            existCustomTimeout = true;
+        }
+        final CacheObject<K, V> co = new CacheObject<>(key, object, timeout);
+        if (null != weigher) {
+            co.weight = weightOf(key, object);
+        }
+        // 容量控制交给ConcurrentLinkedHashMap，无需在写入时遍历清理
+        cacheMap.put(MutableObject.of(key), co);
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return null != getOrRemoveExpired(key, false, false);
+    }
+
+    @Override
+    public V get(final K key, final boolean isUpdateLastAccess) {
+        return getOrRemoveExpired(key, isUpdateLastAccess, true);
+    }
+
+    @Override
+    public Iterator<CacheObject<K, V>> cacheObjIterator() {
+        return new CacheObjectIterator<>(CopiedIterator.copyOf(cacheObjIter()));
+    }
+
+    @Override
+    public int prune() {
+        return pruneCache();
+    }
+
+    /**
+     * 只清理超时对象，LRU的实现会交给{@link ConcurrentLinkedHashMap}
+     */
+    @Override
+    protected int pruneCache() {
+        if (false == isPruneExpiredActive()) {
+            return 0;
+        }
+        int count = 0;
+        for (final CacheObject<K, V> co : cacheMap.values()) {
+            if (co.isExpired() && removeIfSame(co)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void remove(final K key) {
+        final CacheObject<K, V> co = cacheMap.remove(MutableObject.of(key));
+        if (null != co) {
+            onRemove(co.key, co.obj);
+        }
+    }
+
+    @Override
+    public void clear() {
+        cacheMap.clear();
+    }
+
+    /**
+     * 获得值或清除过期值
+     *
+     * @param key                键
+     * @param isUpdateLastAccess 是否更新最后访问时间
+     * @param isUpdateCount      是否更新计数器
+     * @return 值或null
+     */
+    private V getOrRemoveExpired(final K key, final boolean isUpdateLastAccess, final boolean isUpdateCount) {
+        final CacheObject<K, V> co = getWithoutLock(key);
+        if (null == co || co.isExpired()) {
+            if (null != co) {
+                // 过期移除，仅移除当前读到的对象，并发写入的新值不受影响
+                removeIfSame(co);
+            }
+            if (isUpdateCount) {
+                missCount.increment();
+            }
+            return null;
+        }
+
+        if (isUpdateCount) {
+            hitCount.increment();
+        }
+        return co.get(isUpdateLastAccess);
+    }
+
+    /**
+     * 仅当键仍对应此缓存对象时移除，避免并发下误删新写入的值
+     *
+     * @param co 缓存对象
+     * @return 是否由当前线程移除
+     */
+    private boolean removeIfSame(final CacheObject<K, V> co) {
+        if (cacheMap.remove(MutableObject.of(co.key), co)) {
+            onRemove(co.key, co.obj);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 创建存储缓存对象的Map，淘汰由Map在写入时完成，监听在调用者线程中回调
+     *
+     * @param maximumWeightedCapacity 最大容量或最大总权重
+     * @param weigher                 权重计算器，{@code null}表示每个对象权重为1
+     * @return {@link ConcurrentLinkedHashMap}
+     */
+    private ConcurrentLinkedHashMap<Mutable<K>, CacheObject<K, V>> buildMap(final long maximumWeightedCapacity,
+                                                                            final EntryWeigher<? super K, ? super V> weigher) {
+        final ConcurrentLinkedHashMap.Builder<Mutable<K>, CacheObject<K, V>> builder = new ConcurrentLinkedHashMap.Builder<Mutable<K>, CacheObject<K, V>>()
+                .maximumWeightedCapacity(maximumWeightedCapacity)
+                .listener((key, co) -> onRemove(key.get(), co.getValue()));
+        if (null != weigher) {
+            builder.weigher((EntryWeigher<Mutable<K>, CacheObject<K, V>>) (key, co) -> co.weight);
+        }
+        return builder.build();
+    }
+
+}
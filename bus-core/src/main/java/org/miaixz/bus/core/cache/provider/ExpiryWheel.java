@@ -0,0 +1,270 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.core.cache.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * 缓存过期多层时间轮
+ * 每个{@link CacheObject}按照过期时间放入对应的时间槽，清理时只处理已到期的时间槽，
+ * 清理开销与到期对象数相关，而与缓存总大小无关。
+ * 由于对象过期时间会因访问而延后，到期时由调用方判断对象是否真正过期，未过期的对象按照新的过期时间重新放入时间轮。
+ * <p>
+ * 此类非线程安全，需在缓存的写锁保护下使用。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class ExpiryWheel<K, V> {
+
+    /**
+     * 有过期时间的时间槽队列，按照过期时间排序
+     */
+    private final PriorityQueue<Bucket<K, V>> queue = new PriorityQueue<>();
+    /**
+     * 最底层时间轮
+     */
+    private final Wheel<K, V> wheel;
+    /**
+     * 已到期但尚未处理完毕的对象
+     */
+    private List<CacheObject<K, V>> overdue = new ArrayList<>();
+
+    /**
+     * 构造
+     *
+     * @param tickMs    一个时间槽的范围，单位毫秒
+     * @param wheelSize 时间轮大小
+     */
+    public ExpiryWheel(final long tickMs, final int wheelSize) {
+        this.wheel = new Wheel<>(tickMs, wheelSize, System.currentTimeMillis(), this.queue);
+    }
+
+    /**
+     * 计算对象的过期时间点，与{@link CacheObject#isExpired()}保持一致
+     *
+     * @param co 缓存对象
+     * @return 过期时间点，单位毫秒
+     */
+    private static long deadline(final CacheObject<?, ?> co) {
+        return co.lastAccess + co.ttl + 1;
+    }
+
+    /**
+     * 加入缓存对象，永不过期的对象被忽略
+     *
+     * @param co 缓存对象
+     */
+    public void add(final CacheObject<K, V> co) {
+        if (co.ttl > 0 && false == wheel.add(co, deadline(co))) {
+            overdue.add(co);
+        }
+    }
+
+    /**
+     * 推进时间轮到指定时间，并将到期的对象交给处理函数
+     * 处理函数返回{@code true}表示对象已处理（已移除或已失效），返回{@code false}表示对象仍需观察，
+     * 此时将根据其最新的访问时间重新放入时间轮。
+     *
+     * @param now     当前时间，单位毫秒
+     * @param handler 到期对象处理函数
+     */
+    public void advance(final long now, final Predicate<CacheObject<K, V>> handler) {
+        final List<CacheObject<K, V>> due = this.overdue;
+        this.overdue = new ArrayList<>();
+        for (final CacheObject<K, V> co : due) {
+            handle(co, handler);
+        }
+
+        Bucket<K, V> bucket;
+        while (null != (bucket = queue.peek()) && bucket.expiration <= now) {
+            queue.poll();
+            wheel.advanceClock(bucket.expiration);
+            for (final CacheObject<K, V> co : bucket.flush()) {
+                // 先尝试降级到下层时间轮，真正到期的对象才交给处理函数
+                if (false == wheel.add(co, deadline(co))) {
+                    handle(co, handler);
+                }
+            }
+        }
+        wheel.advanceClock(now);
+    }
+
+    /**
+     * 处理到期对象，未处理完毕的对象重新加入时间轮
+     *
+     * @param co      缓存对象
+     * @param handler 处理函数
+     */
+    private void handle(final CacheObject<K, V> co, final Predicate<CacheObject<K, V>> handler) {
+        if (false == handler.test(co)) {
+            add(co);
+        }
+    }
+
+    /**
+     * 单层时间轮，超出范围的对象放入上层时间轮
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     */
+    private static class Wheel<K, V> {
+
+        /**
+         * 一个时间槽的范围
+         */
+        private final long tickMs;
+        /**
+         * 时间轮大小
+         */
+        private final int wheelSize;
+        /**
+         * 当前时间轮总跨度
+         */
+        private final long interval;
+        /**
+         * 时间槽
+         */
+        private final Bucket<K, V>[] buckets;
+        /**
+         * 共享的时间槽队列
+         */
+        private final PriorityQueue<Bucket<K, V>> queue;
+        /**
+         * 当前时间，tickMs的整数倍
+         */
+        private long currentTime;
+        /**
+         * 上层时间轮
+         */
+        private Wheel<K, V> overflowWheel;
+
+        Wheel(final long tickMs, final int wheelSize, final long currentTime, final PriorityQueue<Bucket<K, V>> queue) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                this.buckets[i] = new Bucket<>();
+            }
+            this.currentTime = currentTime - (currentTime % tickMs);
+            this.queue = queue;
+        }
+
+        /**
+         * 加入对象
+         *
+         * @param co         缓存对象
+         * @param expiration 过期时间点
+         * @return {@code false}表示已到期，未加入时间轮
+         */
+        boolean add(final CacheObject<K, V> co, final long expiration) {
+            if (expiration < currentTime + tickMs) {
+                return false;
+            } else if (expiration < currentTime + interval) {
+                final long virtualId = expiration / tickMs;
+                final Bucket<K, V> bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.objects.add(co);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    queue.offer(bucket);
+                }
+            } else {
+                if (null == overflowWheel) {
+                    overflowWheel = new Wheel<>(interval, wheelSize, currentTime, queue);
+                }
+                overflowWheel.add(co, expiration);
+            }
+            return true;
+        }
+
+        /**
+         * 推进时间
+         *
+         * @param timestamp 推进到的时间
+         */
+        void advanceClock(final long timestamp) {
+            if (timestamp >= currentTime + tickMs) {
+                currentTime = timestamp - (timestamp % tickMs);
+                if (null != overflowWheel) {
+                    overflowWheel.advanceClock(timestamp);
+                }
+            }
+        }
+    }
+
+    /**
+     * 时间槽
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     */
+    private static class Bucket<K, V> implements Comparable<Bucket<K, V>> {
+
+        /**
+         * 槽中的对象
+         */
+        private final List<CacheObject<K, V>> objects = new ArrayList<>();
+        /**
+         * 过期时间，-1表示未使用
+         */
+        private long expiration = -1L;
+
+        /**
+         * 设置过期时间
+         *
+         * @param expiration 过期时间
+         * @return 是否变更
+         */
+        boolean setExpiration(final long expiration) {
+            final long old = this.expiration;
+            this.expiration = expiration;
+            return old != expiration;
+        }
+
+        /**
+         * 取出槽中所有对象并重置
+         *
+         * @return 槽中对象
+         */
+        List<CacheObject<K, V>> flush() {
+            final List<CacheObject<K, V>> result = new ArrayList<>(objects);
+            objects.clear();
+            expiration = -1L;
+            return result;
+        }
+
+        @Override
+        public int compareTo(final Bucket<K, V> o) {
+            return Long.compare(this.expiration, o.expiration);
+        }
+    }
+
+}
@@ -117,4 +117,21 @@ public class LFUCache<K, V> extends StampedCache<K, V> {
         return count;
     }
 
+    /**
+     * 按权重淘汰时，优先淘汰访问次数最少的对象
+     *
+     * @param inserted 新加入的对象
+     * @return 候选对象
+     */
+    @Override
+    protected CacheObject<K, V> weightEvictionCandidate(final CacheObject<K, V> inserted) {
+        CacheObject<K, V> comin = null;
+        for (final CacheObject<K, V> co : cacheMap.values()) {
+            if (co != inserted && (comin == null || co.accessCount.get() < comin.accessCount.get())) {
+                comin = co;
+            }
+        }
+        return null != comin ? comin : super.weightEvictionCandidate(inserted);
+    }
+
 }
@@ -74,6 +74,9 @@ public class LRUCache<K, V> extends ReentrantCache<K, V> {
         // 链表key按照访问顺序排序，调用get方法后，会将这次访问的元素移至头部
         final FixedLinkedHashMap<Mutable<K>, CacheObject<K, V>> fixedLinkedHashMap = new FixedLinkedHashMap<>(capacity);
         fixedLinkedHashMap.setRemoveListener(entry -> {
+            if (null != weigher) {
+                weightedSize.add(-entry.getValue().weight);
+            }
             if (null != listener) {
                 listener.onRemove(entry.getKey().get(), entry.getValue().getValue());
             }
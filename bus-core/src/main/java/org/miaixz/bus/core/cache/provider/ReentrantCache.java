@@ -108,7 +108,7 @@ public abstract class ReentrantCache<K, V> extends AbstractCache<K, V> {
     public void clear() {
         lock.lock();
         try {
-            cacheMap.clear();
+            clearWithoutLock();
         } finally {
             lock.unlock();
         }
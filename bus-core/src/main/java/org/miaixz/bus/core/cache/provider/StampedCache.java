@@ -108,7 +108,7 @@ public abstract class StampedCache<K, V> extends AbstractCache<K, V> {
     public void clear() {
         final long stamp = lock.writeLock();
         try {
-            cacheMap.clear();
+            clearWithoutLock();
         } finally {
             lock.unlockWrite(stamp);
         }
@@ -27,6 +27,7 @@ package org.miaixz.bus.core.cache.provider;
 
 import org.miaixz.bus.core.cache.GlobalPruneTimer;
 import org.miaixz.bus.core.lang.mutable.Mutable;
+import org.miaixz.bus.core.lang.mutable.MutableObject;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -36,6 +37,7 @@ import java.util.concurrent.ScheduledFuture;
 /**
  * 定时缓存
  * 此缓存没有容量限制，对象只有在过期后才会被移除
+ * 默认清理时遍历所有对象，可通过{@link #scheduleWheelPrune(long, int)}切换为时间轮模式，清理开销只与到期对象数相关
  *
  * @param <K> 键类型
  * @param <V> 值类型
@@ -50,6 +52,10 @@ public class TimedCache<K, V> extends StampedCache<K, V> {
      * 正在执行的定时任务
      */
     private ScheduledFuture<?> pruneJobFuture;
+    /**
+     * 过期时间轮，{@code null}表示使用全量遍历清理
+     */
+    private ExpiryWheel<K, V> expiryWheel;
 
     /**
      * 构造
@@ -79,6 +85,9 @@ public class TimedCache<K, V> extends StampedCache<K, V> {
      */
     @Override
     protected int pruneCache() {
+        if (null != expiryWheel) {
+            return pruneByWheel();
+        }
         int count = 0;
         final Iterator<CacheObject<K, V>> values = cacheObjIter();
         CacheObject<K, V> co;
@@ -104,6 +113,31 @@ public class TimedCache<K, V> extends StampedCache<K, V> {
         return this;
     }
 
+    /**
+     * 使用时间轮定时清理，每个对象按照过期时间放入时间槽，每次清理只处理到期的对象
+     * 注意：时间轮持有缓存对象的强引用，不适用于{@link WeakCache}
+     *
+     * @param tickMs    时间槽跨度及清理间隔，单位毫秒
+     * @param wheelSize 每层时间轮的槽数
+     * @return this
+     */
+    public TimedCache<K, V> scheduleWheelPrune(final long tickMs, final int wheelSize) {
+        final long stamp = lock.writeLock();
+        try {
+            if (null == expiryWheel) {
+                expiryWheel = new ExpiryWheel<>(tickMs, wheelSize);
+                // 已有对象加入时间轮
+                final Iterator<CacheObject<K, V>> values = cacheObjIter();
+                while (values.hasNext()) {
+                    expiryWheel.add(values.next());
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return schedulePrune(tickMs);
+    }
+
     /**
      * 取消定时清理
      */
@@ -113,4 +147,36 @@ public class TimedCache<K, V> extends StampedCache<K, V> {
         }
     }
 
+    @Override
+    protected CacheObject<K, V> putWithoutLock(final K key, final V object, final long timeout) {
+        final CacheObject<K, V> co = super.putWithoutLock(key, object, timeout);
+        if (null != expiryWheel) {
+            expiryWheel.add(co);
+        }
+        return co;
+    }
+
+    /**
+     * 使用时间轮清理过期对象，已被替换或移除的对象直接丢弃，因访问而延期的对象重新加入时间轮
+     *
+     * @return 清理数
+     */
+    private int pruneByWheel() {
+        final int[] count = {0};
+        expiryWheel.advance(System.currentTimeMillis(), co -> {
+            final Mutable<K> key = MutableObject.of(co.key);
+            if (cacheMap.get(key) != co) {
+                return true;
+            }
+            if (false == co.isExpired()) {
+                return false;
+            }
+            removeWithoutLock(co.key);
+            onRemove(co.key, co.obj);
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
 }
@@ -111,6 +111,31 @@ public class CacheKit {
         return new LRUCache<>(capacity);
     }
 
+    /**
+     * 创建无锁的LRU (least recently used)最近最久未使用缓存，读操作不阻塞，适用于高并发场景.
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @param timeout  过期时长，单位：毫秒
+     * @return {@link ConcurrentLRUCache}
+     */
+    public static <K, V> ConcurrentLRUCache<K, V> newConcurrentLRUCache(final int capacity, final long timeout) {
+        return new ConcurrentLRUCache<>(capacity, timeout);
+    }
+
+    /**
+     * 创建无锁的LRU (least recently used)最近最久未使用缓存，读操作不阻塞，适用于高并发场景.
+     *
+     * @param <K>      Key类型
+     * @param <V>      Value类型
+     * @param capacity 容量
+     * @return {@link ConcurrentLRUCache}
+     */
+    public static <K, V> ConcurrentLRUCache<K, V> newConcurrentLRUCache(final int capacity) {
+        return new ConcurrentLRUCache<>(capacity);
+    }
+
     /**
      * 创建定时缓存，通过定时任务自动清除过期缓存对象
      *
@@ -0,0 +1,105 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.core.cache;
+
+import org.miaixz.bus.core.cache.provider.ConcurrentLRUCache;
+import org.miaixz.bus.core.cache.provider.FIFOCache;
+import org.miaixz.bus.core.cache.provider.LFUCache;
+import org.miaixz.bus.core.cache.provider.LRUCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存并发基准
+ * 多个线程同时按给定的读比例访问同一缓存, 统计吞吐量, 用于对比各缓存实现在竞争下的表现
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:[依赖] org.openjdk.jmh.Main CacheBenchmark
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class CacheBenchmark {
+
+    /**
+     * 缓存容量
+     */
+    private static final int CAPACITY = 10000;
+    /**
+     * 访问的key范围, 大于容量以触发淘汰
+     */
+    private static final int KEY_SPACE = 20000;
+
+    /**
+     * 被测缓存实现
+     */
+    @Param({"LRUCache", "LFUCache", "FIFOCache", "ConcurrentLRUCache"})
+    String provider;
+
+    /**
+     * 读操作所占百分比, 其余为写操作
+     */
+    @Param({"90"})
+    int readPercent;
+
+    Cache<Integer, Integer> cache;
+
+    @Setup
+    public void setup() {
+        cache = switch (provider) {
+            case "LRUCache" -> new LRUCache<>(CAPACITY);
+            case "LFUCache" -> new LFUCache<>(CAPACITY);
+            case "FIFOCache" -> new FIFOCache<>(CAPACITY);
+            default -> new ConcurrentLRUCache<>(CAPACITY);
+        };
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer access() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = random.nextInt(KEY_SPACE);
+        if (random.nextInt(100) < readPercent) {
+            return cache.get(key);
+        }
+        cache.put(key, key);
+        return key;
+    }
+
+}
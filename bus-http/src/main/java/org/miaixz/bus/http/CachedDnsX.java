@@ -0,0 +1,294 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.http;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带缓存的域名服务
+ * <ul>
+ *     <li>解析结果按TTL缓存, 缓存条目数量有上限, 超出时淘汰最久未使用的主机</li>
+ *     <li>解析失败同样缓存一段较短的时间, 避免对不可达主机反复阻塞解析</li>
+ *     <li>同一主机的并发解析合并为一次</li>
+ *     <li>热点主机在过期前由后台线程提前刷新, 刷新期间及刷新失败时继续使用旧结果直至过期</li>
+ *     <li>解析结果按IPv6/IPv4交替排列(Happy Eyeballs, RFC 8305), 首个地址的协议族与底层解析结果保持一致</li>
+ * </ul>
+ * JDK不提供DNS记录本身的TTL, 故缓存时间由构造参数指定
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class CachedDnsX implements DnsX {
+
+    /**
+     * 后台刷新执行器, 最多4个线程并行刷新, 单个主机解析缓慢不会阻塞其它主机的刷新
+     */
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), Builder.threadFactory("Http DnsX Refresh", true));
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 实际执行解析的服务
+     */
+    private final DnsX delegate;
+    /**
+     * 最大缓存主机数
+     */
+    private final int maxSize;
+    /**
+     * 解析成功的缓存时间(纳秒)
+     */
+    private final long ttlNanos;
+    /**
+     * 解析失败的缓存时间(纳秒)
+     */
+    private final long negativeTtlNanos;
+    /**
+     * 剩余有效期低于该值时触发后台刷新(纳秒)
+     */
+    private final long refreshAheadNanos;
+    /**
+     * 有效期内访问次数达到该值的主机才会提前刷新
+     */
+    private final int refreshThreshold;
+    /**
+     * 访问顺序的LRU缓存
+     */
+    private final Map<String, Entry> cache;
+    /**
+     * 进行中的解析
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inflight = new ConcurrentHashMap<>();
+
+    public CachedDnsX() {
+        this(SYSTEM);
+    }
+
+    public CachedDnsX(DnsX delegate) {
+        this(delegate, 1024, 60, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param delegate    实际执行解析的服务
+     * @param maxSize     最大缓存主机数
+     * @param ttl         解析成功的缓存时间
+     * @param negativeTtl 解析失败的缓存时间, 0表示不缓存失败结果
+     * @param unit        时间单位
+     */
+    public CachedDnsX(DnsX delegate, int maxSize, long ttl, long negativeTtl, TimeUnit unit) {
+        if (null == delegate) throw new NullPointerException("delegate == null");
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize <= 0: " + maxSize);
+        if (ttl <= 0) throw new IllegalArgumentException("ttl <= 0: " + ttl);
+        if (negativeTtl < 0) throw new IllegalArgumentException("negativeTtl < 0: " + negativeTtl);
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.negativeTtlNanos = unit.toNanos(negativeTtl);
+        this.refreshAheadNanos = ttlNanos / 5;
+        this.refreshThreshold = 2;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CachedDnsX.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * 将解析结果按IPv6/IPv4交替排列, 以首个地址的协议族开始, 同协议族内保持原有顺序
+     *
+     * @param addresses 解析结果
+     * @return 交替排列后的地址
+     */
+    public static List<InetAddress> interleave(List<InetAddress> addresses) {
+        if (addresses.size() < 2) {
+            return addresses;
+        }
+        List<InetAddress> ipv6 = new ArrayList<>();
+        List<InetAddress> ipv4 = new ArrayList<>();
+        for (InetAddress address : addresses) {
+            (address instanceof Inet6Address ? ipv6 : ipv4).add(address);
+        }
+        if (ipv6.isEmpty() || ipv4.isEmpty()) {
+            return addresses;
+        }
+        boolean ipv6First = addresses.get(0) instanceof Inet6Address;
+        Iterator<InetAddress> first = (ipv6First ? ipv6 : ipv4).iterator();
+        Iterator<InetAddress> second = (ipv6First ? ipv4 : ipv6).iterator();
+        List<InetAddress> result = new ArrayList<>(addresses.size());
+        while (first.hasNext() || second.hasNext()) {
+            if (first.hasNext()) result.add(first.next());
+            if (second.hasNext()) result.add(second.next());
+        }
+        return result;
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        if (null == hostname) throw new UnknownHostException("hostname == null");
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(hostname);
+        }
+        long now = System.nanoTime();
+        if (null == entry || entry.expiresAt - now <= 0) {
+            entry = resolve(hostname);
+        } else if (entry.addresses != null && entry.hits.incrementAndGet() >= refreshThreshold
+                && entry.expiresAt - now <= refreshAheadNanos && entry.refreshing.compareAndSet(false, true)) {
+            Entry current = entry;
+            executor.execute(() -> {
+                try {
+                    resolve(hostname);
+                } catch (UnknownHostException | RuntimeException e) {
+                    // 刷新失败时保留旧结果直至过期, 之后的访问可再次尝试刷新
+                    current.refreshing.set(false);
+                }
+            });
+        }
+        if (null == entry.addresses) {
+            throw new UnknownHostException(entry.error);
+        }
+        return entry.addresses;
+    }
+
+    /**
+     * 解析主机名并更新缓存, 同一主机的并发调用共享同一次解析
+     */
+    private Entry resolve(String hostname) throws UnknownHostException {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inflight.putIfAbsent(hostname, future);
+        if (null != existing) {
+            try {
+                return existing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                UnknownHostException exception = new UnknownHostException("interrupted while resolving " + hostname);
+                exception.initCause(e);
+                throw exception;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UnknownHostException) {
+                    UnknownHostException exception = new UnknownHostException(e.getCause().getMessage());
+                    exception.initCause(e.getCause());
+                    throw exception;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        try {
+            Entry entry;
+            try {
+                List<InetAddress> addresses = delegate.lookup(hostname);
+                if (addresses.isEmpty()) {
+                    throw new UnknownHostException(delegate + " returned no addresses for " + hostname);
+                }
+                entry = new Entry(Collections.unmodifiableList(interleave(new ArrayList<>(addresses))), null,
+                        System.nanoTime() + ttlNanos);
+            } catch (UnknownHostException e) {
+                putNegative(hostname, e.getMessage());
+                future.completeExceptionally(e);
+                throw e;
+            }
+            put(hostname, entry);
+            future.complete(entry);
+            return entry;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(hostname, future);
+        }
+    }
+
+    private void put(String hostname, Entry entry) {
+        synchronized (cache) {
+            cache.put(hostname, entry);
+        }
+    }
+
+    /**
+     * 缓存解析失败的结果, 仍在有效期内的成功结果(提前刷新失败时)不会被覆盖
+     */
+    private void putNegative(String hostname, String error) {
+        if (negativeTtlNanos <= 0) {
+            return;
+        }
+        synchronized (cache) {
+            Entry current = cache.get(hostname);
+            long now = System.nanoTime();
+            if (null != current && null != current.addresses && current.expiresAt - now > 0) {
+                return;
+            }
+            cache.put(hostname, new Entry(null, error, now + negativeTtlNanos));
+        }
+    }
+
+    /**
+     * 清除全部缓存
+     */
+    public void evictAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return 当前缓存的主机数
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * 缓存条目, addresses为null时表示解析失败
+     */
+    private static class Entry {
+
+        final List<InetAddress> addresses;
+        final String error;
+        final long expiresAt;
+        final AtomicInteger hits = new AtomicInteger();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(List<InetAddress> addresses, String error, long expiresAt) {
+            this.addresses = addresses;
+            this.error = error;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
@@ -124,7 +124,7 @@ public class Httpx {
     /**
      * 构建一个自定义配置的 HTTP Client 类
      *
-     * @param dns                DNS 信息
+     * @param dns                DNS 信息, 需缓存解析结果时可传入{@link CachedDnsX}
      * @param httpProxy          代理信息
      * @param connTimeout        连接
      * @param readTimeout        读取
@@ -150,7 +150,7 @@ public class Httpx {
     /**
      * 构建一个自定义配置的 HTTP Client 类
      *
-     * @param dns                DNS 信息
+     * @param dns                DNS 信息, 需缓存解析结果时可传入{@link CachedDnsX}
      * @param httpProxy          代理信息
      * @param connTimeout        连接
      * @param readTimeout        读取
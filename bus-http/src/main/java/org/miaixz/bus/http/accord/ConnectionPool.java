@@ -27,6 +27,7 @@ package org.miaixz.bus.http.accord;
 
 import org.miaixz.bus.http.Address;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -54,6 +55,18 @@ public class ConnectionPool {
         this.delegate = new RealConnectionPool(maxIdleConnections, keepAliveDuration, timeUnit);
     }
 
+    /**
+     * 创建连接池, 同时限制每个{@link Address}的空闲连接数
+     *
+     * @param maxIdleConnections           池内空闲连接总数上限
+     * @param maxIdleConnectionsPerAddress 每个地址的空闲连接数上限
+     * @param keepAliveDuration            空闲连接保持时长
+     * @param timeUnit                     时间单位
+     */
+    public ConnectionPool(int maxIdleConnections, int maxIdleConnectionsPerAddress, long keepAliveDuration, TimeUnit timeUnit) {
+        this.delegate = new RealConnectionPool(maxIdleConnections, maxIdleConnectionsPerAddress, keepAliveDuration, timeUnit);
+    }
+
     /**
      * 返回池中空闲连接的数量
      *
@@ -74,6 +87,33 @@ public class ConnectionPool {
         return delegate.connectionCount();
     }
 
+    /**
+     * 返回因超出保活时间或空闲连接上限而被关闭的连接数
+     *
+     * @return 淘汰的连接数
+     */
+    public long evictionCount() {
+        return delegate.evictionCount();
+    }
+
+    /**
+     * 返回获取连接时复用池中连接的比例
+     *
+     * @return 复用率
+     */
+    public double reuseRatio() {
+        return delegate.reuseRatio();
+    }
+
+    /**
+     * 返回各地址的空闲/活动连接数及复用情况
+     *
+     * @return 各地址的统计信息
+     */
+    public List<RealConnectionPool.Stats> stats() {
+        return delegate.stats();
+    }
+
     /**
      * 关闭并删除池中的所有空闲连接.
      */
@@ -52,7 +52,7 @@ final class ExchangeFinder {
     private final RealConnectionPool connectionPool;
     private final NewCall call;
     private final EventListener eventListener;
-    // State guarded by connectionPool.
+    // State guarded by transmitter.
     private final RouteSelector routeSelector;
     private RouteSelector.Selection routeSelection;
     private RealConnection connectingConnection;
@@ -103,7 +103,7 @@ final class ExchangeFinder {
                     pingIntervalMillis, connectionRetryEnabled);
 
             // If this is a brand new connection, we can skip the extensive health checks.
-            synchronized (connectionPool) {
+            synchronized (candidate) {
                 if (candidate.successCount == 0 && !candidate.isMultiplexed()) {
                     return candidate;
                 }
@@ -131,7 +131,7 @@ final class ExchangeFinder {
         Route selectedRoute = null;
         RealConnection releasedConnection;
         Socket toClose;
-        synchronized (connectionPool) {
+        synchronized (transmitter) {
             if (transmitter.isCanceled()) throw new IOException("Canceled");
             hasStreamFailure = false; // This is a fresh attempt.
 
@@ -182,7 +182,7 @@ final class ExchangeFinder {
         }
 
         List<Route> routes = null;
-        synchronized (connectionPool) {
+        synchronized (transmitter) {
             if (transmitter.isCanceled()) throw new IOException("Canceled");
 
             if (newRouteSelection) {
@@ -220,13 +220,15 @@ final class ExchangeFinder {
         connectionPool.routeDatabase.connected(result.route());
 
         Socket socket = null;
-        synchronized (connectionPool) {
+        synchronized (transmitter) {
             connectingConnection = null;
             // Last attempt at connection coalescing, which only occurs if we attempted multiple
             // concurrent connections to the same host.
             if (connectionPool.transmitterAcquirePooledConnection(address, transmitter, routes, true)) {
                 // We lost the race! Close the connection we created and return the pooled connection.
-                result.noNewExchanges = true;
+                synchronized (result) {
+                    result.noNewExchanges = true;
+                }
                 socket = result.socket();
                 result = transmitter.connection;
 
@@ -234,8 +236,10 @@ final class ExchangeFinder {
                 // that case we will retry the route we just successfully connected with.
                 nextRouteToTry = selectedRoute;
             } else {
+                synchronized (result) {
+                    transmitter.acquireConnectionNoEvents(result);
+                }
                 connectionPool.put(result);
-                transmitter.acquireConnectionNoEvents(result);
             }
         }
         IoKit.close(socket);
@@ -245,13 +249,12 @@ final class ExchangeFinder {
     }
 
     RealConnection connectingConnection() {
-        assert (Thread.holdsLock(connectionPool));
+        assert (Thread.holdsLock(transmitter));
         return connectingConnection;
     }
 
     void trackFailure() {
-        assert (!Thread.holdsLock(connectionPool));
-        synchronized (connectionPool) {
+        synchronized (transmitter) {
             hasStreamFailure = true; // Permit retries.
         }
     }
@@ -260,7 +263,7 @@ final class ExchangeFinder {
      * Returns true if there is a failure that retrying might fix.
      */
     boolean hasStreamFailure() {
-        synchronized (connectionPool) {
+        synchronized (transmitter) {
             return hasStreamFailure;
         }
     }
@@ -269,7 +272,7 @@ final class ExchangeFinder {
      * Returns true if a current route is still good or if there are routes we haven't tried yet.
      */
     boolean hasRouteToTry() {
-        synchronized (connectionPool) {
+        synchronized (transmitter) {
             if (nextRouteToTry != null) {
                 return true;
             }
@@ -289,8 +292,11 @@ final class ExchangeFinder {
      * coalesced connections.
      */
     private boolean retryCurrentRoute() {
-        return transmitter.connection != null
-                && transmitter.connection.routeFailureCount == 0
-                && Builder.sameConnection(transmitter.connection.route().address().url(), address.url());
+        RealConnection connection = transmitter.connection;
+        if (connection == null) return false;
+        synchronized (connection) {
+            if (connection.routeFailureCount != 0) return false;
+        }
+        return Builder.sameConnection(connection.route().address().url(), address.url());
     }
 }
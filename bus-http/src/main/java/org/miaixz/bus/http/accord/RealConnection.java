@@ -81,10 +81,10 @@ public class RealConnection extends Http2Connection.Listener implements Connecti
     /**
      * 如果为真，则不能在此连接上创建新的流
      */
-    boolean noNewExchanges;
+    volatile boolean noNewExchanges;
     /**
      * The number of times there was a problem establishing a stream that could be due to route
-     * chosen. Guarded by {@link #connectionPool}.
+     * chosen. Guarded by this connection.
      */
     int routeFailureCount;
     int successCount;
@@ -102,7 +102,7 @@ public class RealConnection extends Http2Connection.Listener implements Connecti
      */
     private Socket socket;
     /**
-     * 下面的字段处于连接状态，并由connectionPool保护
+     * 下面的字段处于连接状态，并由当前连接对象保护
      */
     private Handshake handshake;
     private Protocol protocol;
@@ -134,8 +134,7 @@ public class RealConnection extends Http2Connection.Listener implements Connecti
      * Prevent further exchanges from being created on this connection.
      */
     public void noNewExchanges() {
-        assert (!Thread.holdsLock(connectionPool));
-        synchronized (connectionPool) {
+        synchronized (this) {
             noNewExchanges = true;
         }
     }
@@ -212,7 +211,7 @@ public class RealConnection extends Http2Connection.Listener implements Connecti
         }
 
         if (null != http2Connection) {
-            synchronized (connectionPool) {
+            synchronized (this) {
                 allocationLimit = http2Connection.maxConcurrentStreams();
             }
         }
@@ -640,7 +639,7 @@ public class RealConnection extends Http2Connection.Listener implements Connecti
      */
     @Override
     public void onSettings(Http2Connection connection) {
-        synchronized (connectionPool) {
+        synchronized (this) {
             allocationLimit = connection.maxConcurrentStreams();
         }
     }
@@ -663,8 +662,7 @@ public class RealConnection extends Http2Connection.Listener implements Connecti
      * being used for future exchanges.
      */
     void trackFailure(IOException e) {
-        assert (!Thread.holdsLock(connectionPool));
-        synchronized (connectionPool) {
+        synchronized (this) {
             if (e instanceof StreamException) {
                 ErrorCode errorCode = ((StreamException) e).errorCode;
                 if (errorCode == ErrorCode.REFUSED_STREAM) {
@@ -35,10 +35,10 @@ import java.io.IOException;
 import java.lang.ref.Reference;
 import java.net.Proxy;
 import java.util.*;
-import java.util.concurrent.Executor;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 真实连接池
@@ -54,14 +54,43 @@ public class RealConnectionPool {
     private static final Executor executor = new ThreadPoolExecutor(0 /* corePoolSize */,
             Integer.MAX_VALUE /* maximumPoolSize */, 60L /* keepAliveTime */, TimeUnit.SECONDS,
             new SynchronousQueue<>(), Builder.threadFactory("Http ConnectionPool", true));
+    /**
+     * 泄漏检测的最小间隔
+     */
+    private static final long PRUNE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
     final RouteDatabase routeDatabase = new RouteDatabase();
     /**
-     * The maximum number of idle connections for each address.
+     * The maximum number of idle connections in the whole pool.
      */
     private final int maxIdleConnections;
+    /**
+     * The maximum number of idle connections for each address.
+     */
+    private final int maxIdleConnectionsPerAddress;
     private final long keepAliveDurationNs;
-    private final Deque<RealConnection> connections = new ArrayDeque<>();
-    boolean cleanupRunning;
+    /**
+     * Pooled connections grouped by their route's address. Each bucket is guarded by its own
+     * monitor, so acquiring and releasing connections of different addresses never contend. The
+     * pool monitor is only taken by the cleanup and eviction sweeps.
+     */
+    private final Map<Address, Bucket> buckets = new ConcurrentHashMap<>();
+    /**
+     * HTTP/2 connections of every address, which are the only candidates for connection coalescing.
+     */
+    private final Set<RealConnection> multiplexedConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    /**
+     * The number of idle connections in the whole pool, checked against {@link #maxIdleConnections}.
+     */
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong reusedCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicBoolean cleanupRunning = new AtomicBoolean();
+    /**
+     * Guarded by this pool.
+     */
+    private long lastPruneNanos;
     private final Runnable cleanupRunnable = () -> {
         while (true) {
             long waitNanos = cleanup(System.nanoTime());
@@ -80,25 +109,63 @@ public class RealConnectionPool {
     };
 
     public RealConnectionPool(int maxIdleConnections, long keepAliveDuration, TimeUnit timeUnit) {
+        this(maxIdleConnections, maxIdleConnections, keepAliveDuration, timeUnit);
+    }
+
+    public RealConnectionPool(int maxIdleConnections, int maxIdleConnectionsPerAddress,
+                              long keepAliveDuration, TimeUnit timeUnit) {
         this.maxIdleConnections = maxIdleConnections;
+        this.maxIdleConnectionsPerAddress = maxIdleConnectionsPerAddress;
         this.keepAliveDurationNs = timeUnit.toNanos(keepAliveDuration);
 
         // Put a floor on the keep alive duration, otherwise cleanup will spin loop.
         if (keepAliveDuration <= 0) {
             throw new IllegalArgumentException("keepAliveDuration <= 0: " + keepAliveDuration);
         }
+        if (maxIdleConnectionsPerAddress < 0) {
+            throw new IllegalArgumentException("maxIdleConnectionsPerAddress < 0: " + maxIdleConnectionsPerAddress);
+        }
     }
 
-    public synchronized int idleConnectionCount() {
-        int total = 0;
-        for (RealConnection connection : connections) {
-            if (connection.transmitters.isEmpty()) total++;
-        }
-        return total;
+    public int idleConnectionCount() {
+        return idleCount.get();
     }
 
-    public synchronized int connectionCount() {
-        return connections.size();
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Returns the number of connections closed by the pool because they exceeded the keep alive
+     * duration or an idle connection limit.
+     */
+    public long evictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Returns the share of connection acquisitions served by a pooled connection rather than a new
+     * one, or 0 if no connection has been acquired yet.
+     */
+    public double reuseRatio() {
+        long reused = reusedCount.get();
+        long total = reused + createdCount.get();
+        return total == 0 ? 0 : (double) reused / total;
+    }
+
+    /**
+     * Returns a snapshot of the pooled connections of each address.
+     */
+    public List<Stats> stats() {
+        List<Stats> result = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets.values()) {
+            synchronized (bucket) {
+                if (bucket.removed) continue;
+                result.add(new Stats(bucket.address, bucket.idle.size(),
+                        bucket.connections.size() - bucket.idle.size(), bucket.reused, bucket.created));
+            }
+        }
+        return result;
     }
 
     /**
@@ -107,23 +174,71 @@ public class RealConnectionPool {
      */
     boolean transmitterAcquirePooledConnection(Address address, Transmitter transmitter,
                                                List<Route> routes, boolean requireMultiplexed) {
-        assert (Thread.holdsLock(this));
-        for (RealConnection connection : connections) {
-            if (requireMultiplexed && !connection.isMultiplexed()) continue;
-            if (!connection.isEligible(address, routes)) continue;
-            transmitter.acquireConnectionNoEvents(connection);
-            return true;
+        assert (Thread.holdsLock(transmitter));
+        Bucket bucket = buckets.get(address);
+        if (null != bucket) {
+            synchronized (bucket) {
+                for (RealConnection connection : bucket.multiplexed) {
+                    if (acquire(bucket, connection, address, routes, transmitter)) return true;
+                }
+                if (!requireMultiplexed) {
+                    // Prefer the most recently used connection, letting the others reach the keep alive limit.
+                    for (RealConnection connection : bucket.idle.reversed()) {
+                        if (connection.isMultiplexed()) continue;
+                        if (acquire(bucket, connection, address, routes, transmitter)) return true;
+                    }
+                }
+            }
+        }
+        if (null == routes) return false;
+        // Connection coalescing: an HTTP/2 connection to another host may carry this address.
+        for (RealConnection connection : multiplexedConnections) {
+            Bucket owner = buckets.get(connection.route().address());
+            if (null == owner || owner == bucket) continue;
+            synchronized (owner) {
+                if (!owner.connections.contains(connection)) continue;
+                if (acquire(owner, connection, address, routes, transmitter)) return true;
+            }
         }
         return false;
     }
 
+    private boolean acquire(Bucket bucket, RealConnection connection, Address address,
+                            List<Route> routes, Transmitter transmitter) {
+        assert (Thread.holdsLock(bucket));
+        synchronized (connection) {
+            if (!connection.isEligible(address, routes)) return false;
+            transmitter.acquireConnectionNoEvents(connection);
+        }
+        if (bucket.idle.remove(connection)) {
+            idleCount.decrementAndGet();
+        }
+        bucket.reused++;
+        reusedCount.incrementAndGet();
+        return true;
+    }
+
     void put(RealConnection connection) {
-        assert (Thread.holdsLock(this));
-        if (!cleanupRunning) {
-            cleanupRunning = true;
+        Address address = connection.route().address();
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(address, Bucket::new);
+            synchronized (bucket) {
+                // The bucket was emptied and dropped after we looked it up, use a fresh one.
+                if (bucket.removed) continue;
+                bucket.connections.add(connection);
+                bucket.created++;
+                if (connection.isMultiplexed()) {
+                    bucket.multiplexed.add(connection);
+                    multiplexedConnections.add(connection);
+                }
+                break;
+            }
+        }
+        createdCount.incrementAndGet();
+        connectionCount.incrementAndGet();
+        if (cleanupRunning.compareAndSet(false, true)) {
             executor.execute(cleanupRunnable);
         }
-        connections.add(connection);
     }
 
     /**
@@ -131,27 +246,77 @@ public class RealConnectionPool {
      * been removed from the pool and should be closed.
      */
     boolean connectionBecameIdle(RealConnection connection) {
-        assert (Thread.holdsLock(this));
-        if (connection.noNewExchanges || maxIdleConnections == 0) {
-            connections.remove(connection);
-            return true;
-        } else {
-            notifyAll(); // Awake the cleanup thread: we may have exceeded the idle connection limit.
-            return false;
+        assert (!Thread.holdsLock(connection));
+        Bucket bucket = buckets.get(connection.route().address());
+        if (null == bucket) return true;
+        boolean overLimit;
+        synchronized (bucket) {
+            boolean noNewExchanges;
+            synchronized (connection) {
+                // An HTTP/2 connection may have been acquired again since its last stream was released.
+                if (!connection.transmitters.isEmpty()) return false;
+                noNewExchanges = connection.noNewExchanges;
+            }
+            if (!bucket.connections.contains(connection)) return true;
+            if (noNewExchanges || maxIdleConnections == 0) {
+                remove(bucket, connection);
+                return true;
+            }
+            if (bucket.idle.size() >= maxIdleConnectionsPerAddress) {
+                // This address already has enough idle connections.
+                remove(bucket, connection);
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            if (!bucket.idle.add(connection)) return false;
+            overLimit = idleCount.incrementAndGet() > maxIdleConnections;
+        }
+        if (overLimit) {
+            // Awake the cleanup thread: we have exceeded the idle connection limit.
+            synchronized (this) {
+                notifyAll();
+            }
         }
+        return false;
+    }
+
+    /**
+     * Removes {@code connection} from {@code bucket}, returning false if it wasn't pooled.
+     */
+    private boolean remove(Bucket bucket, RealConnection connection) {
+        assert (Thread.holdsLock(bucket));
+        if (!bucket.connections.remove(connection)) return false;
+        connectionCount.decrementAndGet();
+        if (bucket.idle.remove(connection)) {
+            idleCount.decrementAndGet();
+        }
+        if (connection.isMultiplexed()) {
+            bucket.multiplexed.remove(connection);
+            multiplexedConnections.remove(connection);
+        }
+        if (bucket.connections.isEmpty()) {
+            bucket.removed = true;
+            buckets.remove(bucket.address, bucket);
+        }
+        return true;
     }
 
     public void evictAll() {
         List<RealConnection> evictedConnections = new ArrayList<>();
         synchronized (this) {
-            for (Iterator<RealConnection> i = connections.iterator(); i.hasNext(); ) {
-                RealConnection connection = i.next();
-                if (connection.transmitters.isEmpty()) {
-                    connection.noNewExchanges = true;
-                    evictedConnections.add(connection);
-                    i.remove();
+            for (Bucket bucket : buckets.values()) {
+                synchronized (bucket) {
+                    List<RealConnection> idle = new ArrayList<>(bucket.idle);
+                    for (RealConnection connection : idle) {
+                        synchronized (connection) {
+                            connection.noNewExchanges = true;
+                        }
+                        remove(bucket, connection);
+                    }
+                    evictedConnections.addAll(idle);
                 }
             }
+            evictionCount.addAndGet(evictedConnections.size());
         }
 
         for (RealConnection connection : evictedConnections) {
@@ -161,56 +326,89 @@ public class RealConnectionPool {
 
     /**
      * Performs maintenance on this pool, evicting the connection that has been idle the longest if
-     * either it has exceeded the keep alive limit or the idle connections limit.
+     * either it has exceeded the keep alive limit or the idle connections limit. Leaked connections
+     * are detected by scanning the in-use connections at most once per second.
      * Returns the duration in nanos to sleep until the next scheduled call to this method. Returns
      * -1 if no further cleanups are required.
      */
     long cleanup(long now) {
-        int inUseConnectionCount = 0;
-        int idleConnectionCount = 0;
-        RealConnection longestIdleConnection = null;
-        long longestIdleDurationNs = Long.MIN_VALUE;
+        List<RealConnection> evictedConnections = new ArrayList<>();
 
-        // Find either a connection to evict, or the time that the next eviction is due.
         synchronized (this) {
-            for (Iterator<RealConnection> i = connections.iterator(); i.hasNext(); ) {
-                RealConnection connection = i.next();
-
-                // If the connection is in use, keep searching.
-                if (pruneAndGetAllocationCount(connection, now) > 0) {
-                    inUseConnectionCount++;
-                    continue;
+            if (now - lastPruneNanos >= PRUNE_INTERVAL_NANOS) {
+                lastPruneNanos = now;
+                for (Bucket bucket : buckets.values()) {
+                    synchronized (bucket) {
+                        List<RealConnection> leaked = null;
+                        for (RealConnection connection : bucket.connections) {
+                            synchronized (connection) {
+                                if (connection.transmitters.isEmpty()) continue;
+                                // Every transmitter of this connection has leaked, evict it right away.
+                                if (pruneAndGetAllocationCount(connection, now) != 0) continue;
+                            }
+                            if (null == leaked) leaked = new ArrayList<>();
+                            leaked.add(connection);
+                        }
+                        if (null == leaked) continue;
+                        for (RealConnection connection : leaked) {
+                            remove(bucket, connection);
+                        }
+                        evictedConnections.addAll(leaked);
+                    }
                 }
+                evictionCount.addAndGet(evictedConnections.size());
+            }
 
-                idleConnectionCount++;
-
-                // If the connection is ready to be evicted, we're done.
-                long idleDurationNs = now - connection.idleAtNanos;
-                if (idleDurationNs > longestIdleDurationNs) {
-                    longestIdleDurationNs = idleDurationNs;
-                    longestIdleConnection = connection;
+            // The head of each bucket's idle set is its longest idle connection.
+            Bucket longestIdleBucket = null;
+            RealConnection longestIdleConnection = null;
+            long longestIdleAtNanos = Long.MAX_VALUE;
+            for (Bucket bucket : buckets.values()) {
+                synchronized (bucket) {
+                    if (bucket.idle.isEmpty()) continue;
+                    RealConnection connection = bucket.idle.getFirst();
+                    if (connection.idleAtNanos < longestIdleAtNanos) {
+                        longestIdleBucket = bucket;
+                        longestIdleConnection = connection;
+                        longestIdleAtNanos = connection.idleAtNanos;
+                    }
                 }
             }
 
-            if (longestIdleDurationNs >= this.keepAliveDurationNs
-                    || idleConnectionCount > this.maxIdleConnections) {
-                // We've found a connection to evict. Remove it from the list, then close it below (outside
-                // of the synchronized block).
-                connections.remove(longestIdleConnection);
-            } else if (idleConnectionCount > 0) {
-                // A connection will be ready to evict soon.
-                return keepAliveDurationNs - longestIdleDurationNs;
-            } else if (inUseConnectionCount > 0) {
-                // All connections are in use. It'll be at least the keep alive duration 'til we run again.
-                return keepAliveDurationNs;
-            } else {
-                // No connections, idle or in use.
-                cleanupRunning = false;
-                return -1;
+            if (null != longestIdleConnection) {
+                long idleDurationNs = now - longestIdleAtNanos;
+                if (idleDurationNs >= this.keepAliveDurationNs
+                        || idleCount.get() > this.maxIdleConnections) {
+                    // We've found a connection to evict. Remove it from the pool, then close it below (outside
+                    // of the synchronized block). It may have been acquired since the scan, then look again.
+                    synchronized (longestIdleBucket) {
+                        if (longestIdleBucket.idle.contains(longestIdleConnection)) {
+                            remove(longestIdleBucket, longestIdleConnection);
+                            evictionCount.incrementAndGet();
+                            evictedConnections.add(longestIdleConnection);
+                        }
+                    }
+                } else if (evictedConnections.isEmpty()) {
+                    // A connection will be ready to evict soon.
+                    return keepAliveDurationNs - idleDurationNs;
+                }
+            } else if (evictedConnections.isEmpty()) {
+                if (connectionCount.get() > 0) {
+                    // All connections are in use. It'll be at least the keep alive duration 'til we run again.
+                    return keepAliveDurationNs;
+                }
+                // No connections, idle or in use. A connection put concurrently either starts a new
+                // cleanup or is seen by the second check, which then keeps this one running.
+                cleanupRunning.set(false);
+                if (connectionCount.get() == 0 || !cleanupRunning.compareAndSet(false, true)) {
+                    return -1;
+                }
             }
         }
 
-        IoKit.close(longestIdleConnection.socket());
+        for (RealConnection connection : evictedConnections) {
+            IoKit.close(connection.socket());
+        }
 
         // Cleanup again immediately.
         return 0;
@@ -265,4 +463,81 @@ public class RealConnectionPool {
         routeDatabase.failed(failedRoute);
     }
 
+    /**
+     * Connections of a single address, guarded by the bucket itself.
+     */
+    private static final class Bucket {
+
+        final Address address;
+        final Set<RealConnection> connections = new LinkedHashSet<>();
+        /**
+         * Idle connections in the order they became idle. The head is the longest idle connection.
+         */
+        final LinkedHashSet<RealConnection> idle = new LinkedHashSet<>();
+        final List<RealConnection> multiplexed = new ArrayList<>(1);
+        long reused;
+        long created;
+        /**
+         * Set once the bucket has no connections left and was dropped from the pool.
+         */
+        boolean removed;
+
+        Bucket(Address address) {
+            this.address = address;
+        }
+
+    }
+
+    /**
+     * Pool statistics of a single address.
+     */
+    public static final class Stats {
+
+        private final Address address;
+        private final int idle;
+        private final int active;
+        private final long reused;
+        private final long created;
+
+        Stats(Address address, int idle, int active, long reused, long created) {
+            this.address = address;
+            this.idle = idle;
+            this.active = active;
+            this.reused = reused;
+            this.created = created;
+        }
+
+        public Address address() {
+            return address;
+        }
+
+        public int idle() {
+            return idle;
+        }
+
+        public int active() {
+            return active;
+        }
+
+        public long reused() {
+            return reused;
+        }
+
+        public long created() {
+            return created;
+        }
+
+        public double reuseRatio() {
+            long total = reused + created;
+            return total == 0 ? 0 : (double) reused / total;
+        }
+
+        @Override
+        public String toString() {
+            return address.url().host() + ":" + address.url().port()
+                    + " idle=" + idle + " active=" + active + " reused=" + reused + " created=" + created;
+        }
+
+    }
+
 }
@@ -59,7 +59,7 @@ public class Transmitter {
     private final NewCall call;
     private final EventListener eventListener;
     /**
-     * 有connectionPool守卫
+     * 由当前对象守卫
      */
     public RealConnection connection;
     private Object callStackTrace;
@@ -161,7 +161,7 @@ public class Transmitter {
      * Returns a new exchange to carry a new request and response.
      */
     Exchange newExchange(Interceptor.Chain chain, boolean doExtensiveHealthChecks) {
-        synchronized (connectionPool) {
+        synchronized (this) {
             if (noMoreExchanges) {
                 throw new IllegalStateException("released");
             }
@@ -174,7 +174,7 @@ public class Transmitter {
         HttpCodec codec = exchangeFinder.find(client, chain, doExtensiveHealthChecks);
         Exchange result = new Exchange(this, call, eventListener, exchangeFinder, codec);
 
-        synchronized (connectionPool) {
+        synchronized (this) {
             this.exchange = result;
             this.exchangeRequestDone = false;
             this.exchangeResponseDone = false;
@@ -183,7 +183,8 @@ public class Transmitter {
     }
 
     void acquireConnectionNoEvents(RealConnection connection) {
-        assert (Thread.holdsLock(connectionPool));
+        assert (Thread.holdsLock(this));
+        assert (Thread.holdsLock(connection));
 
         if (this.connection != null) throw new IllegalStateException();
         this.connection = connection;
@@ -195,35 +196,39 @@ public class Transmitter {
      * caller should close.
      */
     Socket releaseConnectionNoEvents() {
-        assert (Thread.holdsLock(connectionPool));
-
-        int index = -1;
-        for (int i = 0, size = this.connection.transmitters.size(); i < size; i++) {
-            Reference<Transmitter> reference = this.connection.transmitters.get(i);
-            if (reference.get() == this) {
-                index = i;
-                break;
+        assert (Thread.holdsLock(this));
+
+        RealConnection released = this.connection;
+        boolean idle;
+        synchronized (released) {
+            int index = -1;
+            for (int i = 0, size = released.transmitters.size(); i < size; i++) {
+                Reference<Transmitter> reference = released.transmitters.get(i);
+                if (reference.get() == this) {
+                    index = i;
+                    break;
+                }
             }
-        }
 
-        if (index == -1) throw new IllegalStateException();
+            if (index == -1) throw new IllegalStateException();
 
-        RealConnection released = this.connection;
-        released.transmitters.remove(index);
+            released.transmitters.remove(index);
+            idle = released.transmitters.isEmpty();
+            if (idle) {
+                released.idleAtNanos = System.nanoTime();
+            }
+        }
         this.connection = null;
 
-        if (released.transmitters.isEmpty()) {
-            released.idleAtNanos = System.nanoTime();
-            if (connectionPool.connectionBecameIdle(released)) {
-                return released.socket();
-            }
+        if (idle && connectionPool.connectionBecameIdle(released)) {
+            return released.socket();
         }
 
         return null;
     }
 
     public void exchangeDoneDueToException() {
-        synchronized (connectionPool) {
+        synchronized (this) {
             if (noMoreExchanges) throw new IllegalStateException();
             exchange = null;
         }
@@ -239,7 +244,7 @@ public class Transmitter {
     IOException exchangeMessageDone(
             Exchange exchange, boolean requestDone, boolean responseDone, IOException e) {
         boolean exchangeDone = false;
-        synchronized (connectionPool) {
+        synchronized (this) {
             if (exchange != this.exchange) {
                 return e; // This exchange was detached violently!
             }
@@ -254,7 +259,10 @@ public class Transmitter {
             }
             if (exchangeRequestDone && exchangeResponseDone && changed) {
                 exchangeDone = true;
-                this.exchange.connection().successCount++;
+                RealConnection connection = this.exchange.connection();
+                synchronized (connection) {
+                    connection.successCount++;
+                }
                 this.exchange = null;
             }
         }
@@ -265,7 +273,7 @@ public class Transmitter {
     }
 
     public IOException noMoreExchanges(IOException e) {
-        synchronized (connectionPool) {
+        synchronized (this) {
             noMoreExchanges = true;
         }
         return maybeReleaseConnection(e, false);
@@ -283,7 +291,7 @@ public class Transmitter {
         Socket socket;
         Connection releasedConnection;
         boolean callEnd;
-        synchronized (connectionPool) {
+        synchronized (this) {
             if (force && exchange != null) {
                 throw new IllegalStateException("cannot release connection while it is in use");
             }
@@ -317,7 +325,7 @@ public class Transmitter {
     }
 
     public boolean hasExchange() {
-        synchronized (connectionPool) {
+        synchronized (this) {
             return exchange != null;
         }
     }
@@ -333,7 +341,7 @@ public class Transmitter {
     public void cancel() {
         Exchange exchangeToCancel;
         RealConnection connectionToCancel;
-        synchronized (connectionPool) {
+        synchronized (this) {
             canceled = true;
             exchangeToCancel = exchange;
             connectionToCancel = exchangeFinder != null && exchangeFinder.connectingConnection() != null
@@ -348,7 +356,7 @@ public class Transmitter {
     }
 
     public boolean isCanceled() {
-        synchronized (connectionPool) {
+        synchronized (this) {
             return canceled;
         }
     }
@@ -69,10 +69,16 @@ public class Cache implements Closeable, Flushable {
     private static final int ENTRY_BODY = 1;
     private static final int ENTRY_COUNT = 2;
     final DiskLruCache cache;
+    /**
+     * 内存缓存层, 为null表示未启用
+     */
+    final MemoryTier memory;
     int writeSuccessCount;
     int writeAbortCount;
     private int networkCount;
     private int hitCount;
+    private int memoryHitCount;
+    private int diskHitCount;
     private int requestCount;
 
     public final InternalCache internalCache = new InternalCache() {
@@ -118,8 +124,28 @@ public class Cache implements Closeable, Flushable {
         this(directory, maxSize, DiskLruCache.DiskFile.SYSTEM);
     }
 
+    /**
+     * 在{@code directory}中创建最多{@code maxSize}字节的缓存, 并在其前增加最多{@code memorySize}字节的内存缓存层
+     * 响应体不超过内存层1/16的条目在从磁盘命中后提升至内存, 此后的命中不再读取磁盘
+     *
+     * @param directory  目录
+     * @param maxSize    缓存的最大大小(以字节为单位)
+     * @param memorySize 内存缓存层的最大大小(以字节为单位), 0表示不启用
+     */
+    public Cache(File directory, long maxSize, long memorySize) {
+        this(directory, maxSize, memorySize, DiskLruCache.DiskFile.SYSTEM);
+    }
+
     public Cache(File directory, long maxSize, DiskLruCache.DiskFile diskFile) {
+        this(directory, maxSize, 0, diskFile);
+    }
+
+    public Cache(File directory, long maxSize, long memorySize, DiskLruCache.DiskFile diskFile) {
+        if (memorySize < 0) {
+            throw new IllegalArgumentException("memorySize < 0");
+        }
         this.cache = DiskLruCache.create(diskFile, directory, VERSION, ENTRY_COUNT, maxSize);
+        this.memory = memorySize > 0 ? new MemoryTier(memorySize) : null;
     }
 
     public static String key(UnoUrl url) {
@@ -141,6 +167,13 @@ public class Cache implements Closeable, Flushable {
 
     Response get(Request request) {
         String key = key(request.url());
+        if (null != memory) {
+            MemoryEntry hot = memory.get(key);
+            if (null != hot) {
+                Response response = hot.entry.response(new MemoryResponseBody(hot, false));
+                return hot.entry.matches(request, response) ? response : null;
+            }
+        }
         DiskLruCache.Snapshot snapshot;
         Entry entry;
         try {
@@ -160,7 +193,24 @@ public class Cache implements Closeable, Flushable {
             return null;
         }
 
-        Response response = entry.response(snapshot);
+        Response response;
+        if (null != memory && snapshot.getLength(ENTRY_BODY) <= memory.maxEntrySize) {
+            // 小响应从磁盘命中后提升至内存层
+            byte[] body;
+            try (BufferSource source = IoKit.buffer(snapshot.getSource(ENTRY_BODY))) {
+                body = source.readByteArray();
+            } catch (IOException e) {
+                IoKit.close(snapshot);
+                return null;
+            }
+            IoKit.close(snapshot);
+            MemoryEntry hot = new MemoryEntry(key, entry, body, snapshot.sequenceNumber());
+            // 仅当磁盘条目仍是该快照的版本时提升, 与写入、删除后的内存失效保持先后顺序, 避免旧响应被重新放入内存层
+            cache.ifCurrent(key, hot.sequenceNumber, () -> memory.put(hot));
+            response = entry.response(new MemoryResponseBody(hot, true));
+        } else {
+            response = entry.response(snapshot);
+        }
 
         if (!entry.matches(request, response)) {
             IoKit.close(response.body());
@@ -192,13 +242,16 @@ public class Cache implements Closeable, Flushable {
 
         Entry entry = new Entry(response);
         DiskLruCache.Editor editor = null;
+        if (null != memory) {
+            memory.remove(key(response.request().url()));
+        }
         try {
             editor = cache.edit(key(response.request().url()));
             if (null == editor) {
                 return null;
             }
             entry.writeTo(editor);
-            return new CacheRequestImpl(editor);
+            return new CacheRequestImpl(key(response.request().url()), editor);
         } catch (IOException e) {
             abortQuietly(editor);
             return null;
@@ -206,11 +259,38 @@ public class Cache implements Closeable, Flushable {
     }
 
     void remove(Request request) throws IOException {
-        cache.remove(key(request.url()));
+        String key = key(request.url());
+        if (null != memory) {
+            memory.remove(key);
+        }
+        cache.remove(key);
+        if (null != memory) {
+            // 删除前可能已有读取把旧条目提升至内存层
+            memory.remove(key);
+        }
     }
 
     void update(Response cached, Response network) {
         Entry entry = new Entry(network);
+        if (cached.body() instanceof MemoryResponseBody) {
+            MemoryEntry hot = ((MemoryResponseBody) cached.body()).entry;
+            DiskLruCache.Editor editor = null;
+            try {
+                // 磁盘条目已变化时返回null, 内存中的条目随之失效
+                editor = cache.edit(hot.key, hot.sequenceNumber);
+                if (null == editor) {
+                    memory.remove(hot.key, hot);
+                    return;
+                }
+                entry.writeTo(editor);
+                editor.commit();
+                memory.replace(hot, new MemoryEntry(hot.key, entry, hot.body, editor.sequenceNumber()));
+            } catch (IOException e) {
+                abortQuietly(editor);
+                memory.remove(hot.key, hot);
+            }
+            return;
+        }
         DiskLruCache.Snapshot snapshot = ((CacheResponseBody) cached.body()).snapshot;
         DiskLruCache.Editor editor = null;
         try {
@@ -219,6 +299,9 @@ public class Cache implements Closeable, Flushable {
             if (editor != null) {
                 entry.writeTo(editor);
                 editor.commit();
+                if (null != memory) {
+                    memory.remove(snapshot.key());
+                }
             }
         } catch (IOException e) {
             abortQuietly(editor);
@@ -251,6 +334,9 @@ public class Cache implements Closeable, Flushable {
      * @throws IOException 删除异常
      */
     public void delete() throws IOException {
+        if (null != memory) {
+            memory.clear();
+        }
         cache.delete();
     }
 
@@ -260,6 +346,9 @@ public class Cache implements Closeable, Flushable {
      * @throws IOException 清除异常
      */
     public void evictAll() throws IOException {
+        if (null != memory) {
+            memory.clear();
+        }
         cache.evictAll();
     }
 
@@ -276,6 +365,7 @@ public class Cache implements Closeable, Flushable {
             final Iterator<DiskLruCache.Snapshot> delegate = cache.snapshots();
 
             String nextUrl;
+            String lastUrl;
             boolean canRemove;
 
             @Override
@@ -305,6 +395,7 @@ public class Cache implements Closeable, Flushable {
                 String result = nextUrl;
                 nextUrl = null;
                 canRemove = true;
+                lastUrl = result;
                 return result;
             }
 
@@ -312,6 +403,9 @@ public class Cache implements Closeable, Flushable {
             public void remove() {
                 if (!canRemove) throw new IllegalStateException("remove() before next()");
                 delegate.remove();
+                if (null != memory) {
+                    memory.remove(ByteString.encodeUtf8(lastUrl).md5().hex());
+                }
             }
         };
     }
@@ -339,6 +433,9 @@ public class Cache implements Closeable, Flushable {
 
     @Override
     public void close() throws IOException {
+        if (null != memory) {
+            memory.clear();
+        }
         cache.close();
     }
 
@@ -359,6 +456,12 @@ public class Cache implements Closeable, Flushable {
         } else if (null != cacheStrategy.cacheResponse) {
             // 此响应使用缓存而不是网络。这就是缓存命中
             hitCount++;
+            ResponseBody body = cacheStrategy.cacheResponse.body();
+            if (body instanceof MemoryResponseBody && !((MemoryResponseBody) body).fromDisk) {
+                memoryHitCount++;
+            } else {
+                diskHitCount++;
+            }
         }
     }
 
@@ -374,6 +477,27 @@ public class Cache implements Closeable, Flushable {
         return hitCount;
     }
 
+    /**
+     * @return 由内存缓存层直接返回的次数
+     */
+    public synchronized int memoryHitCount() {
+        return memoryHitCount;
+    }
+
+    /**
+     * @return 由磁盘缓存直接返回的次数
+     */
+    public synchronized int diskHitCount() {
+        return diskHitCount;
+    }
+
+    /**
+     * @return 内存缓存层当前占用的字节数
+     */
+    public long memorySize() {
+        return null != memory ? memory.size() : 0;
+    }
+
     public synchronized int requestCount() {
         return requestCount;
     }
@@ -600,6 +724,10 @@ public class Cache implements Closeable, Flushable {
         public Response response(DiskLruCache.Snapshot snapshot) {
             String mediaType = responseHeaders.get(Header.CONTENT_TYPE);
             String length = responseHeaders.get(Header.CONTENT_LENGTH);
+            return response(new CacheResponseBody(snapshot, mediaType, length));
+        }
+
+        public Response response(ResponseBody body) {
             Request request = new Request.Builder()
                     .url(url)
                     .method(requestMethod, null)
@@ -611,7 +739,7 @@ public class Cache implements Closeable, Flushable {
                     .code(code)
                     .message(message)
                     .headers(responseHeaders)
-                    .body(new CacheResponseBody(snapshot, mediaType, length))
+                    .body(body)
                     .handshake(handshake)
                     .sentRequestAtMillis(sentRequestMillis)
                     .receivedResponseAtMillis(receivedResponseMillis)
@@ -664,12 +792,14 @@ public class Cache implements Closeable, Flushable {
 
     private class CacheRequestImpl implements CacheRequest {
 
+        private final String key;
         private final DiskLruCache.Editor editor;
         boolean done;
         private Sink cacheOut;
         private Sink body;
 
-        CacheRequestImpl(final DiskLruCache.Editor editor) {
+        CacheRequestImpl(String key, final DiskLruCache.Editor editor) {
+            this.key = key;
             this.editor = editor;
             this.cacheOut = editor.newSink(ENTRY_BODY);
             this.body = new AssignSink(cacheOut) {
@@ -684,6 +814,10 @@ public class Cache implements Closeable, Flushable {
                     }
                     super.close();
                     editor.commit();
+                    if (null != memory) {
+                        // 提交前可能已有读取把旧条目提升至内存层
+                        memory.remove(key);
+                    }
                 }
             };
         }
@@ -710,4 +844,127 @@ public class Cache implements Closeable, Flushable {
         }
     }
 
+    /**
+     * 内存缓存条目
+     */
+    private static class MemoryEntry {
+
+        final String key;
+        final Entry entry;
+        final byte[] body;
+        /**
+         * 对应磁盘条目的序列号, 用于判断磁盘条目是否已变化
+         */
+        final long sequenceNumber;
+
+        MemoryEntry(String key, Entry entry, byte[] body, long sequenceNumber) {
+            this.key = key;
+            this.entry = entry;
+            this.body = body;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        long weight() {
+            // 元数据按固定开销估算
+            return body.length + 512;
+        }
+
+    }
+
+    /**
+     * 按字节数限制大小的LRU内存缓存层
+     */
+    static class MemoryTier {
+
+        final long maxSize;
+        final long maxEntrySize;
+        private final LinkedHashMap<String, MemoryEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long size;
+
+        MemoryTier(long maxSize) {
+            this.maxSize = maxSize;
+            this.maxEntrySize = maxSize / 16;
+        }
+
+        synchronized MemoryEntry get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(MemoryEntry entry) {
+            MemoryEntry previous = entries.put(entry.key, entry);
+            if (null != previous) {
+                size -= previous.weight();
+            }
+            size += entry.weight();
+            Iterator<MemoryEntry> iterator = entries.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                size -= iterator.next().weight();
+                iterator.remove();
+            }
+        }
+
+        synchronized void replace(MemoryEntry expected, MemoryEntry entry) {
+            if (entries.get(expected.key) == expected) {
+                put(entry);
+            }
+        }
+
+        synchronized void remove(String key) {
+            MemoryEntry previous = entries.remove(key);
+            if (null != previous) {
+                size -= previous.weight();
+            }
+        }
+
+        synchronized void remove(String key, MemoryEntry expected) {
+            if (entries.get(key) == expected) {
+                remove(key);
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            size = 0;
+        }
+
+        synchronized long size() {
+            return size;
+        }
+
+    }
+
+    private static class MemoryResponseBody extends ResponseBody {
+
+        final MemoryEntry entry;
+        /**
+         * 本次响应体是否刚从磁盘读取并提升至内存
+         */
+        final boolean fromDisk;
+        private final BufferSource bodySource;
+        private final String mediaType;
+
+        MemoryResponseBody(MemoryEntry entry, boolean fromDisk) {
+            this.entry = entry;
+            this.fromDisk = fromDisk;
+            this.mediaType = entry.entry.responseHeaders.get(Header.CONTENT_TYPE);
+            this.bodySource = new Buffer().write(entry.body);
+        }
+
+        @Override
+        public MediaType mediaType() {
+            return null != mediaType ? MediaType.valueOf(mediaType) : null;
+        }
+
+        @Override
+        public long length() {
+            return entry.body.length;
+        }
+
+        @Override
+        public BufferSource source() {
+            return bodySource;
+        }
+
+    }
+
 }
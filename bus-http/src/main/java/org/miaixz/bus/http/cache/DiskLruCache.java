@@ -101,6 +101,10 @@ public class DiskLruCache implements Closeable, Flushable {
      * 如果快照的序列号不等于其条目的序列号，则该快照将失效
      */
     private long nextSequenceNumber = 0;
+    /**
+     * 是否已提交日志刷新任务, CLEAN/REMOVE记录在该任务执行前写入的均由同一次刷新提交
+     */
+    private boolean journalFlushScheduled;
 
     DiskLruCache(DiskFile diskFile, File directory, int appVersion, int valueCount, long maxSize,
                  Executor executor) {
@@ -378,6 +382,22 @@ public class DiskLruCache implements Closeable, Flushable {
         return edit(key, ANY_SEQUENCE_NUMBER);
     }
 
+    /**
+     * Runs {@code action} while holding this cache's lock, provided the entry for {@code key} is still
+     * the version identified by {@code sequenceNumber}. Commits and removals of that entry are ordered
+     * against the action.
+     *
+     * @return true if the entry was current and the action ran.
+     */
+    synchronized boolean ifCurrent(String key, long sequenceNumber, Runnable action) {
+        Entry entry = lruEntries.get(key);
+        if (null == entry || !entry.readable || entry.sequenceNumber != sequenceNumber) {
+            return false;
+        }
+        action.run();
+        return true;
+    }
+
     synchronized Editor edit(String key, long expectedSequenceNumber) throws IOException {
         initialize();
 
@@ -500,13 +520,24 @@ public class DiskLruCache implements Closeable, Flushable {
             journalWriter.writeUtf8(entry.key);
             journalWriter.writeByte('\n');
         }
-        journalWriter.flush();
+        scheduleJournalFlush();
 
         if (size > maxSize || journalRebuildRequired()) {
             executor.execute(cleanupRunnable);
         }
     }
 
+    /**
+     * 合并提交日志: 在清理线程中刷新缓冲的日志记录, 刷新前写入的记录共用一次写操作.
+     * DIRTY记录仍在创建文件前同步刷新, 以免进程退出时遗留无法识别的临时文件
+     */
+    private void scheduleJournalFlush() {
+        if (!journalFlushScheduled) {
+            journalFlushScheduled = true;
+            executor.execute(journalFlushRunnable);
+        }
+    }
+
     /**
      * We only rebuild the journal when it will halve the size of the journal and eliminate at least
      * 2000 ops.
@@ -549,6 +580,7 @@ public class DiskLruCache implements Closeable, Flushable {
         redundantOpCount++;
         journalWriter.writeUtf8(REMOVE).writeByte(Symbol.C_SPACE).writeUtf8(entry.key).writeByte('\n');
         lruEntries.remove(entry.key);
+        scheduleJournalFlush();
 
         if (journalRebuildRequired()) {
             executor.execute(cleanupRunnable);
@@ -889,6 +921,10 @@ public class DiskLruCache implements Closeable, Flushable {
             return lengths[index];
         }
 
+        long sequenceNumber() {
+            return sequenceNumber;
+        }
+
         public void close() {
             for (Source in : sources) {
                 IoKit.close(in);
@@ -999,6 +1035,15 @@ public class DiskLruCache implements Closeable, Flushable {
             }
         }
 
+        /**
+         * 提交后条目的序列号
+         */
+        long sequenceNumber() {
+            synchronized (DiskLruCache.this) {
+                return entry.sequenceNumber;
+            }
+        }
+
         /**
          * 中止这个编辑。这释放了编辑锁，因此可以在同一个键上启动另一个编辑
          *
@@ -1134,6 +1179,22 @@ public class DiskLruCache implements Closeable, Flushable {
         }
     }
 
+    private final Runnable journalFlushRunnable = new Runnable() {
+        public void run() {
+            synchronized (DiskLruCache.this) {
+                journalFlushScheduled = false;
+                if (!initialized | closed || null == journalWriter) {
+                    return;
+                }
+                try {
+                    journalWriter.flush();
+                } catch (IOException ignored) {
+                    // 日志写入异常已由FaultHideSink标记为hasJournalErrors, 后续编辑将被拒绝
+                }
+            }
+        }
+    };
+
     private final Runnable cleanupRunnable = new Runnable() {
         public void run() {
             synchronized (DiskLruCache.this) {
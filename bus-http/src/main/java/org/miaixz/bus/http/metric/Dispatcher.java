@@ -31,15 +31,14 @@ import org.miaixz.bus.http.NewCall;
 import org.miaixz.bus.http.RealCall;
 
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  * 关于何时执行异步请求的策略
  * 每个dispatcher使用一个{@link ExecutorService}在内部运行调用。
  * 如果您提供自己的执行程序，它应该能够并发地运行{@linkplain #getMaxRequests 配置的最大调用数}
+ * 通过{@link #ofVirtual()}创建的调度器为每个异步调用启动一个虚拟线程, 由全局及每个主机的信号量限制并发,
+ * 等待许可的调用仅占用虚拟线程, 不再由{@link #promoteAndExecute()}扫描队列提升
  *
  * @author Kimi Liu
  * @since Java 17+
@@ -59,22 +58,68 @@ public class Dispatcher {
      */
     private final Deque<RealCall> runningSyncCalls = new ArrayDeque<>();
     private int maxRequests = Normal._64;
-    private int maxRequestsPerHost = 5;
+    private volatile int maxRequestsPerHost = 5;
     private Runnable idleCallback;
     /**
      * 执行调用
      */
     private ExecutorService executorService;
+    /**
+     * 虚拟线程模式下的全局并发限制, 为null表示使用线程池模式
+     */
+    private final Limiter requestLimiter;
+    /**
+     * 虚拟线程模式下每个主机的并发限制
+     */
+    private final Map<String, Limiter> hostLimiters = new ConcurrentHashMap<>();
+    /**
+     * 虚拟线程模式下等待许可的异步调用
+     */
+    private final Set<RealCall.AsyncCall> waitingAsyncCalls = ConcurrentHashMap.newKeySet();
+    /**
+     * 虚拟线程模式下正在执行的异步调用
+     */
+    private final Set<RealCall.AsyncCall> executingAsyncCalls = ConcurrentHashMap.newKeySet();
+    /**
+     * 虚拟线程工厂
+     */
+    private final ThreadFactory virtualThreadFactory;
 
     public Dispatcher(ExecutorService executorService) {
-        this.executorService = executorService;
+        this(executorService, false);
     }
 
     public Dispatcher() {
+        this(null, false);
+    }
 
+    private Dispatcher(ExecutorService executorService, boolean virtual) {
+        this.executorService = executorService;
+        this.requestLimiter = virtual ? new Limiter(maxRequests) : null;
+        this.virtualThreadFactory = virtual ? Thread.ofVirtual().name("Http Dispatcher-", 0).factory() : null;
+    }
+
+    /**
+     * 创建虚拟线程模式的调度器, 每个异步调用在独立的虚拟线程中执行,
+     * {@link #setMaxRequests(int)}及{@link #setMaxRequestsPerHost(int)}的限制保持不变
+     *
+     * @return 调度器
+     */
+    public static Dispatcher ofVirtual() {
+        return new Dispatcher(null, true);
+    }
+
+    /**
+     * @return 是否为虚拟线程模式
+     */
+    public boolean isVirtual() {
+        return null != requestLimiter;
     }
 
     public synchronized ExecutorService executorService() {
+        if (null == executorService && isVirtual()) {
+            executorService = Executors.newThreadPerTaskExecutor(virtualThreadFactory);
+        }
         if (null == executorService) {
             executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
                     new SynchronousQueue<>(), Builder.threadFactory("Http Dispatcher", false));
@@ -98,6 +143,9 @@ public class Dispatcher {
         }
         synchronized (this) {
             this.maxRequests = maxRequests;
+            if (isVirtual()) {
+                requestLimiter.resize(maxRequests);
+            }
         }
         promoteAndExecute();
     }
@@ -119,6 +167,12 @@ public class Dispatcher {
         }
         synchronized (this) {
             this.maxRequestsPerHost = maxRequestsPerHost;
+            for (String host : hostLimiters.keySet()) {
+                hostLimiters.computeIfPresent(host, (key, limiter) -> {
+                    limiter.resize(maxRequestsPerHost);
+                    return limiter;
+                });
+            }
         }
         promoteAndExecute();
     }
@@ -134,6 +188,11 @@ public class Dispatcher {
     }
 
     public void enqueue(RealCall.AsyncCall call) {
+        if (isVirtual()) {
+            waitingAsyncCalls.add(call);
+            virtualThreadFactory.newThread(() -> dispatch(call)).start();
+            return;
+        }
         synchronized (this) {
             readyAsyncCalls.add(call);
             if (!call.get().forWebSocket) {
@@ -144,6 +203,28 @@ public class Dispatcher {
         promoteAndExecute();
     }
 
+    /**
+     * 在虚拟线程中依次获取主机及全局许可后执行调用, 先获取主机许可以免等待主机许可的调用占用全局许可
+     */
+    private void dispatch(RealCall.AsyncCall call) {
+        Limiter hostLimiter = hostLimiters.compute(call.host(), (key, limiter) -> {
+            if (null == limiter) {
+                limiter = new Limiter(maxRequestsPerHost);
+            }
+            limiter.users++;
+            return limiter;
+        });
+        hostLimiter.acquireUninterruptibly();
+        requestLimiter.acquireUninterruptibly();
+        executingAsyncCalls.add(call);
+        waitingAsyncCalls.remove(call);
+        call.run();
+    }
+
+    private void releaseHost(String host) {
+        hostLimiters.computeIfPresent(host, (key, limiter) -> --limiter.users == 0 ? null : limiter);
+    }
+
     public RealCall.AsyncCall findExistingCallWithHost(String host) {
         for (RealCall.AsyncCall existingCall : runningAsyncCalls) {
             if (existingCall.host().equals(host)) return existingCall;
@@ -160,6 +241,14 @@ public class Dispatcher {
      * 执行的{@linkplain NewCall#enqueue}。
      */
     public synchronized void cancelAll() {
+        for (RealCall.AsyncCall call : waitingAsyncCalls) {
+            call.get().cancel();
+        }
+
+        for (RealCall.AsyncCall call : executingAsyncCalls) {
+            call.get().cancel();
+        }
+
         for (RealCall.AsyncCall call : readyAsyncCalls) {
             call.get().cancel();
         }
@@ -181,6 +270,12 @@ public class Dispatcher {
      */
     public boolean promoteAndExecute() {
         assert (!Thread.holdsLock(this));
+        if (isVirtual()) {
+            // 虚拟线程模式下由信号量控制并发, 等待中的调用同样视为运行中
+            synchronized (this) {
+                return runningCallsCount() > 0 || !waitingAsyncCalls.isEmpty();
+            }
+        }
 
         List<RealCall.AsyncCall> executableCalls = new ArrayList<>();
         boolean isRunning;
@@ -218,6 +313,22 @@ public class Dispatcher {
      * Used by {@code AsyncCall#run} to signal completion.
      */
     public void finished(RealCall.AsyncCall call) {
+        if (isVirtual()) {
+            if (!executingAsyncCalls.remove(call)) {
+                throw new AssertionError("Call wasn't in-flight!");
+            }
+            hostLimiters.get(call.host()).release();
+            requestLimiter.release();
+            releaseHost(call.host());
+            Runnable idleCallback;
+            synchronized (this) {
+                idleCallback = this.idleCallback;
+            }
+            if (!promoteAndExecute() && null != idleCallback) {
+                idleCallback.run();
+            }
+            return;
+        }
         call.callsPerHost().decrementAndGet();
         finished(runningAsyncCalls, call);
     }
@@ -253,6 +364,9 @@ public class Dispatcher {
         for (RealCall.AsyncCall asyncCall : readyAsyncCalls) {
             result.add(asyncCall.get());
         }
+        for (RealCall.AsyncCall asyncCall : waitingAsyncCalls) {
+            result.add(asyncCall.get());
+        }
         return Collections.unmodifiableList(result);
     }
 
@@ -265,15 +379,46 @@ public class Dispatcher {
         for (RealCall.AsyncCall asyncCall : runningAsyncCalls) {
             result.add(asyncCall.get());
         }
+        for (RealCall.AsyncCall asyncCall : executingAsyncCalls) {
+            result.add(asyncCall.get());
+        }
         return Collections.unmodifiableList(result);
     }
 
     public synchronized int queuedCallsCount() {
-        return readyAsyncCalls.size();
+        return readyAsyncCalls.size() + waitingAsyncCalls.size();
     }
 
     public synchronized int runningCallsCount() {
-        return runningAsyncCalls.size() + runningSyncCalls.size();
+        return runningAsyncCalls.size() + executingAsyncCalls.size() + runningSyncCalls.size();
+    }
+
+    /**
+     * 可调整许可总数的公平信号量
+     */
+    private static final class Limiter extends Semaphore {
+
+        private int limit;
+        /**
+         * 引用该限制的调用数, 仅在{@link ConcurrentHashMap#compute}中修改
+         */
+        private int users;
+
+        Limiter(int limit) {
+            super(limit, true);
+            this.limit = limit;
+        }
+
+        synchronized void resize(int limit) {
+            int delta = limit - this.limit;
+            this.limit = limit;
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+        }
+
     }
 
 }
@@ -30,6 +30,15 @@ import org.miaixz.bus.core.xyz.IoKit;
 import org.miaixz.bus.http.Callback;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 文件下载
@@ -39,6 +48,19 @@ import java.io.*;
  */
 public class Downloads {
 
+    /**
+     * 分段进度文件后缀
+     */
+    private static final String SIDECAR_SUFFIX = ".segments";
+    /**
+     * 每个分段的最小字节数
+     */
+    private static final long MIN_SEGMENT_BYTES = 64 * 1024;
+    /**
+     * 保存分段进度的间隔字节数
+     */
+    private static final long SAVE_INTERVAL_BYTES = 4 * 1024 * 1024;
+
     private final Object lock = new Object();
     protected boolean nextOnIO = false;
     private File file;
@@ -56,6 +78,19 @@ public class Downloads {
 
     private Control control;
 
+    /**
+     * 分段数量
+     */
+    private int segments = 1;
+    /**
+     * 分段下载的数据源, 为null表示服务端不支持Range请求
+     */
+    private RangeSource rangeSource;
+    /**
+     * 分段下载中首个失败的异常
+     */
+    private IOException segmentFailure;
+
     public Downloads(File file, InputStream input, CoverTasks.Executor executor, long skipBytes) {
         this.file = file;
         this.input = input;
@@ -99,6 +134,32 @@ public class Downloads {
         return this;
     }
 
+    /**
+     * 设置分段下载, 服务端支持Range请求且内容长度已知时将文件划分为多个区间并发下载,
+     * 各区间的进度保存在同目录的 {@code 文件名.segments} 中, 中断后再次下载到同一文件时仅下载未完成的部分,
+     * 服务端不支持时按单连接下载
+     *
+     * @param segments 分段数量
+     * @return Download
+     */
+    public Downloads setSegments(int segments) {
+        if (segments > 0) {
+            this.segments = segments;
+        }
+        return this;
+    }
+
+    /**
+     * 设置分段下载的数据源
+     *
+     * @param rangeSource 数据源
+     * @return Download
+     */
+    Downloads setRangeSource(RangeSource rangeSource) {
+        this.rangeSource = rangeSource;
+        return this;
+    }
+
     /**
      * 在IO线程执行
      *
@@ -144,6 +205,12 @@ public class Downloads {
         if (buffSize == 0) {
             buffSize = Progress.DEFAULT_STEP_BYTES;
         }
+        if (segments > 1 && null != rangeSource && !appended
+                && rangeSource.length() >= (long) segments * MIN_SEGMENT_BYTES) {
+            status = Control.STATUS__DOWNLOADING;
+            executor.execute(this::doSegmentedDownload, true);
+            return control;
+        }
         RandomAccessFile raFile = randomAccessFile();
         status = Control.STATUS__DOWNLOADING;
         executor.execute(() -> {
@@ -226,6 +293,281 @@ public class Downloads {
         }
     }
 
+    /**
+     * 规划并提交各区间的下载任务后立即返回, 不阻塞等待, 由最后完成的区间负责收尾,
+     * 避免执行器线程数不超过区间数时协调任务占用线程而导致死锁
+     */
+    private void doSegmentedDownload() {
+        File sidecar = new File(file.getPath() + SIDECAR_SUFFIX);
+        FileChannel channel = null;
+        List<Segment> plan = null;
+        long length = -1;
+        List<Segment> pending = new ArrayList<>();
+        try {
+            length = rangeSource.length();
+            // 需在打开(创建)数据文件前校验进度, 以识别数据文件已被删除的情况
+            plan = loadPlan(sidecar, file, length, rangeSource.validator());
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            if (null == plan) {
+                plan = newPlan(length, segments);
+                savePlan(sidecar, length, rangeSource.validator(), plan);
+            }
+            for (Segment segment : plan) {
+                if (segment.remaining() > 0) {
+                    pending.add(segment);
+                }
+            }
+        } catch (IOException e) {
+            failSegments(e);
+            pending.clear();
+        }
+        if (pending.isEmpty()) {
+            completeSegments(channel, sidecar, length, plan);
+            return;
+        }
+        // 原响应从0开始, 首个区间未开始下载时直接复用
+        InputStream first = pending.get(0).start == 0 && pending.get(0).done == 0 ? input : null;
+        if (null == first) {
+            IoKit.close(input);
+        }
+        AtomicInteger remaining = new AtomicInteger(pending.size());
+        FileChannel segmentChannel = channel;
+        List<Segment> segmentPlan = plan;
+        long segmentLength = length;
+        for (int i = 0; i < pending.size(); i++) {
+            Segment segment = pending.get(i);
+            InputStream in = i == 0 ? first : null;
+            executor.execute(() -> {
+                try {
+                    fetch(segment, in, segmentChannel, sidecar, segmentLength, segmentPlan);
+                } catch (IOException e) {
+                    IoKit.close(in);
+                    failSegments(e);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        completeSegments(segmentChannel, sidecar, segmentLength, segmentPlan);
+                    }
+                }
+            }, true);
+        }
+    }
+
+    /**
+     * 全部区间结束后收尾: 成功时截断文件, 失败时保存进度, 并回调结果
+     */
+    private void completeSegments(FileChannel channel, File sidecar, long length, List<Segment> plan) {
+        try {
+            if (null != channel) {
+                synchronized (lock) {
+                    if (status == Control.STATUS__DOWNLOADING) {
+                        channel.truncate(length);
+                        status = Control.STATUS__DONE;
+                    }
+                }
+                if (status == Control.STATUS__ERROR && null != plan) {
+                    channel.force(false);
+                    savePlan(sidecar, length, rangeSource.validator(), plan);
+                }
+            }
+        } catch (IOException e) {
+            failSegments(e);
+        } finally {
+            IoKit.close(channel);
+            IoKit.close(input);
+            if (null != plan) {
+                long done = 0;
+                for (Segment segment : plan) {
+                    done += segment.done;
+                }
+                doneBytes = done;
+            }
+            if (status == Control.STATUS__CANCELED) {
+                file.delete();
+            }
+            if (status == Control.STATUS__CANCELED || status == Control.STATUS__DONE) {
+                sidecar.delete();
+            }
+        }
+        if (status == Control.STATUS__DONE && null != onSuccess) {
+            executor.execute(() -> onSuccess.on(file), sOnIO);
+        } else if (status == Control.STATUS__ERROR) {
+            IOException e = segmentFailure;
+            if (null != onFailure) {
+                executor.execute(() -> onFailure.on(new Failure(e)), fOnIO);
+            } else {
+                throw new InternalException("Streaming failed!", e);
+            }
+        }
+    }
+
+    /**
+     * 下载单个区间, 数据以定位写入文件, 每累计{@link #SAVE_INTERVAL_BYTES}字节刷盘并保存一次进度
+     */
+    private void fetch(Segment segment, InputStream in, FileChannel channel, File sidecar,
+                       long length, List<Segment> plan) throws IOException {
+        if (!awaitDownloading()) {
+            IoKit.close(in);
+            return;
+        }
+        try (InputStream input = null != in ? in : rangeSource.open(segment.start + segment.done, segment.end)) {
+            byte[] buff = new byte[buffSize];
+            long unsaved = 0;
+            while (segment.remaining() > 0) {
+                if (!awaitDownloading()) {
+                    break;
+                }
+                int len = input.read(buff, 0, (int) Math.min(buff.length, segment.remaining()));
+                if (len == -1) {
+                    throw new EOFException("Unexpected end of range " + segment.start + "-" + segment.end);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(buff, 0, len);
+                long position = segment.start + segment.done;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                segment.done += len;
+                unsaved += len;
+                if (unsaved >= SAVE_INTERVAL_BYTES || segment.remaining() == 0) {
+                    channel.force(false);
+                    savePlan(sidecar, length, rangeSource.validator(), plan);
+                    unsaved = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * 暂停时等待恢复
+     *
+     * @return 是否继续下载
+     */
+    private boolean awaitDownloading() {
+        synchronized (lock) {
+            while (status == Control.STATUS__PAUSED) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return status == Control.STATUS__DOWNLOADING;
+        }
+    }
+
+    private void failSegments(IOException e) {
+        synchronized (lock) {
+            if (null == segmentFailure) {
+                segmentFailure = e;
+            }
+            if (status == Control.STATUS__DOWNLOADING || status == Control.STATUS__PAUSED) {
+                status = Control.STATUS__ERROR;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private static List<Segment> newPlan(long length, int count) {
+        List<Segment> plan = new ArrayList<>(count);
+        long size = length / count;
+        for (int i = 0; i < count; i++) {
+            long start = i * size;
+            long end = i == count - 1 ? length - 1 : start + size - 1;
+            plan.add(new Segment(start, end, 0));
+        }
+        return plan;
+    }
+
+    /**
+     * 读取进度文件, 文件不存在、与当前资源不一致或已下载的数据文件缺失(被删除或截断)时返回null
+     */
+    private static List<Segment> loadPlan(File sidecar, File file, long length, String validator) {
+        if (!sidecar.exists() || !file.exists()) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(sidecar.toPath(), StandardCharsets.UTF_8);
+            if (lines.size() < 3 || Long.parseLong(lines.get(0)) != length || !lines.get(1).equals(validator)) {
+                return null;
+            }
+            List<Segment> plan = new ArrayList<>(lines.size() - 2);
+            long written = 0;
+            for (String line : lines.subList(2, lines.size())) {
+                String[] values = line.split(" ");
+                Segment segment = new Segment(Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2]));
+                written = Math.max(written, segment.start + segment.done);
+                plan.add(segment);
+            }
+            return file.length() < written ? null : plan;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 先写临时文件再替换, 避免中断时进度文件损坏
+     */
+    private static void savePlan(File sidecar, long length, String validator, List<Segment> plan) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(length).append('\n').append(validator).append('\n');
+        synchronized (plan) {
+            for (Segment segment : plan) {
+                builder.append(segment.start).append(' ').append(segment.end).append(' ').append(segment.done).append('\n');
+            }
+            File temp = new File(sidecar.getPath() + ".tmp");
+            Files.write(temp.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * 分段下载的数据源
+     */
+    interface RangeSource {
+
+        /**
+         * @return 资源总长度
+         */
+        long length();
+
+        /**
+         * @return 资源的校验标识(ETag或Last-Modified), 用于判断续传时资源是否变化
+         */
+        String validator();
+
+        /**
+         * 打开指定区间的输入流
+         *
+         * @param start 起始位置
+         * @param end   结束位置(包含)
+         * @return 输入流
+         * @throws IOException 请求失败或服务端未返回对应区间
+         */
+        InputStream open(long start, long end) throws IOException;
+
+    }
+
+    /**
+     * 下载区间
+     */
+    private static class Segment {
+
+        final long start;
+        final long end;
+        volatile long done;
+
+        Segment(long start, long end, long done) {
+            this.start = start;
+            this.end = end;
+            this.done = done;
+        }
+
+        long remaining() {
+            return end - start + 1 - done;
+        }
+
+    }
+
     /**
      * 下载监听接口
      *
@@ -300,6 +642,7 @@ public class Downloads {
             synchronized (lock) {
                 if (status == STATUS__PAUSED) {
                     status = STATUS__DOWNLOADING;
+                    lock.notifyAll();
                 }
             }
         }
@@ -311,6 +654,7 @@ public class Downloads {
             synchronized (lock) {
                 if (status == STATUS__PAUSED || status == STATUS__DOWNLOADING) {
                     status = STATUS__CANCELED;
+                    lock.notifyAll();
                 }
             }
         }
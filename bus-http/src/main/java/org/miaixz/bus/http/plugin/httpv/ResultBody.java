@@ -30,6 +30,8 @@ import org.miaixz.bus.core.io.buffer.Buffer;
 import org.miaixz.bus.core.lang.*;
 import org.miaixz.bus.core.lang.exception.InternalException;
 import org.miaixz.bus.http.Callback;
+import org.miaixz.bus.http.Httpv;
+import org.miaixz.bus.http.Request;
 import org.miaixz.bus.http.Response;
 import org.miaixz.bus.http.bodys.ResponseBody;
 
@@ -244,7 +246,49 @@ public class ResultBody implements CoverResult.Body {
             }
         }
         return executor.download(coverHttp, file, toByteStream(),
-                getRangeStart());
+                getRangeStart()).setRangeSource(rangeSource());
+    }
+
+    /**
+     * 完整响应且服务端声明支持Range请求时, 返回可按区间重新请求该资源的数据源
+     */
+    private Downloads.RangeSource rangeSource() {
+        long length = getLength();
+        if (response.code() != HttpURLConnection.HTTP_OK || length <= 0 || null == coverHttp
+                || !"bytes".equalsIgnoreCase(response.header(Header.ACCEPT_RANGES))) {
+            return null;
+        }
+        String etag = response.header(Header.ETAG);
+        String validator = null != etag ? etag : response.header(Header.LAST_MODIFIED, Normal.EMPTY);
+        Request request = response.request();
+        Httpv httpv = coverHttp.httpv;
+        return new Downloads.RangeSource() {
+            @Override
+            public long length() {
+                return length;
+            }
+
+            @Override
+            public String validator() {
+                return validator;
+            }
+
+            @Override
+            public InputStream open(long start, long end) throws IOException {
+                Request.Builder builder = request.newBuilder()
+                        .header(Header.RANGE, "bytes=" + start + Symbol.MINUS + end);
+                if (!validator.isEmpty()) {
+                    builder.header(Header.IF_RANGE, validator);
+                }
+                Response partial = httpv.request(builder.build()).execute();
+                ResponseBody body = partial.body();
+                if (partial.code() != HttpURLConnection.HTTP_PARTIAL || null == body) {
+                    partial.close();
+                    throw new IOException("Range " + start + Symbol.MINUS + end + " not satisfied, code: " + partial.code());
+                }
+                return body.byteStream();
+            }
+        };
     }
 
     @Override
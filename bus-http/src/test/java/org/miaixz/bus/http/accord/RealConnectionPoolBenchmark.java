@@ -0,0 +1,126 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.http.accord;
+
+import org.miaixz.bus.core.xyz.IoKit;
+import org.miaixz.bus.http.Address;
+import org.miaixz.bus.http.Httpd;
+import org.miaixz.bus.http.Route;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接池并发基准
+ * 多个线程同时对随机主机获取、释放连接, 调用方式与{@link ExchangeFinder}一致: 只持有各自{@link Transmitter}的锁,
+ * 池中没有可复用连接时新建一个未连接的{@link Socket}放入池中
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:[依赖] org.openjdk.jmh.Main RealConnectionPoolBenchmark
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RealConnectionPoolBenchmark {
+
+    /**
+     * 访问的主机数量
+     */
+    @Param({"1", "200"})
+    int hosts;
+
+    Httpd client;
+    RealConnectionPool pool;
+    Route[] routes;
+
+    @Setup
+    public void setup() {
+        client = new Httpd.Builder()
+                .connectionPool(new ConnectionPool(1000, 8, 5, TimeUnit.MINUTES))
+                .build();
+        pool = client.connectionPool().delegate;
+        routes = new Route[hosts];
+        for (int i = 0; i < hosts; i++) {
+            String host = "host" + i + ".example";
+            Address address = new Address(host, 80, client.dns(), client.socketFactory(),
+                    null, null, null, client.proxyAuthenticator(),
+                    client.proxy(), client.protocols(), client.connectionSpecs(), client.proxySelector());
+            routes[i] = new Route(address, Proxy.NO_PROXY, InetSocketAddress.createUnresolved(host, 80));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.evictAll();
+    }
+
+    @Benchmark
+    public void acquireRelease(Caller caller) {
+        Route route = routes[ThreadLocalRandom.current().nextInt(hosts)];
+        Transmitter transmitter = caller.transmitter;
+        Socket socket;
+        synchronized (transmitter) {
+            if (!pool.transmitterAcquirePooledConnection(route.address(), transmitter, null, false)) {
+                RealConnection connection = RealConnection.testConnection(pool, route, new Socket(), Long.MAX_VALUE);
+                synchronized (connection) {
+                    transmitter.acquireConnectionNoEvents(connection);
+                }
+                pool.put(connection);
+            }
+            socket = transmitter.releaseConnectionNoEvents();
+        }
+        IoKit.close(socket);
+    }
+
+    /**
+     * 每个线程独立的调用方
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        Transmitter transmitter;
+
+        @Setup
+        public void setup(RealConnectionPoolBenchmark benchmark) {
+            transmitter = new Transmitter(benchmark.client, null);
+        }
+
+    }
+
+}
@@ -354,6 +354,35 @@ public final class AioQuickClient {
         return this;
     }
 
+    /**
+     * 启用聚合写, 写缓冲中排队的多个内存块通过一次vectored write输出
+     * 启用SSL时不生效
+     *
+     * @param gatheringWrite 是否启用
+     * @return 当前客户端实例
+     */
+    public final AioQuickClient setGatheringWrite(boolean gatheringWrite) {
+        config.setGatheringWrite(gatheringWrite);
+        return this;
+    }
+
+    /**
+     * 设置写缓冲的高低水位线
+     * 待输出数据量超出高水位线时会话不可写, 回落至低水位线以下时恢复, 状态变更时触发{@link SocketStatus#WRITABILITY_CHANGED}
+     *
+     * @param low  低水位线, 单位：byte
+     * @param high 高水位线, 单位：byte
+     * @return 当前客户端实例
+     */
+    public final AioQuickClient setWriteWatermark(int low, int high) {
+        if (low < 0 || high < low) {
+            throw new IllegalArgumentException("invalid watermark, low: " + low + ", high: " + high);
+        }
+        config.setWriteLowWatermark(low);
+        config.setWriteHighWatermark(high);
+        return this;
+    }
+
     /**
      * 客户端连接超时时间，单位:毫秒
      *
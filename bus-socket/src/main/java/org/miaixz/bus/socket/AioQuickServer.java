@@ -36,6 +36,7 @@ import org.miaixz.bus.socket.handler.ConcurrentReadCompletionHandler;
 import org.miaixz.bus.socket.handler.ReadCompletionHandler;
 import org.miaixz.bus.socket.handler.WriteCompletionHandler;
 import org.miaixz.bus.socket.process.MessageProcessor;
+import org.miaixz.bus.socket.process.VirtualThreadMessageProcessor;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -395,4 +396,57 @@ public final class AioQuickServer {
         return this;
     }
 
+    /**
+     * 启用聚合写, 写缓冲中排队的多个内存块通过一次vectored write输出, 适合大量小消息的场景
+     * 启用SSL时不生效
+     *
+     * @param gatheringWrite 是否启用
+     * @return 当前AioQuickServer对象
+     */
+    public AioQuickServer setGatheringWrite(boolean gatheringWrite) {
+        this.config.setGatheringWrite(gatheringWrite);
+        return this;
+    }
+
+    /**
+     * 启用虚拟线程处理模式
+     * 消息解码后按会话交由虚拟线程顺序处理, 业务中的阻塞调用不会占用IO线程;
+     * 单个会话排队的消息数达到maxPending时暂停读取, 直至消费过半; 重复调用时以最后一次的maxPending为准
+     *
+     * @param maxPending 每个会话允许排队的消息数
+     * @return 当前AioQuickServer对象
+     */
+    public AioQuickServer setVirtualThreadProcessing(int maxPending) {
+        MessageProcessor<?> processor = config.getProcessor();
+        config.setProcessor(virtualThreadProcessor(processor, maxPending));
+        return this;
+    }
+
+    private static <T> VirtualThreadMessageProcessor<T> virtualThreadProcessor(MessageProcessor<T> processor, int maxPending) {
+        if (processor instanceof VirtualThreadMessageProcessor<T> virtual) {
+            if (virtual.getMaxPending() == maxPending) {
+                return virtual;
+            }
+            processor = virtual.getProcessor();
+        }
+        return new VirtualThreadMessageProcessor<>(processor, maxPending);
+    }
+
+    /**
+     * 设置写缓冲的高低水位线
+     * 待输出数据量超出高水位线时会话不可写, 回落至低水位线以下时恢复, 状态变更时触发{@link SocketStatus#WRITABILITY_CHANGED}
+     *
+     * @param low  低水位线, 单位：byte
+     * @param high 高水位线, 单位：byte
+     * @return 当前AioQuickServer对象
+     */
+    public AioQuickServer setWriteWatermark(int low, int high) {
+        if (low < 0 || high < low) {
+            throw new IllegalArgumentException("invalid watermark, low: " + low + ", high: " + high);
+        }
+        this.config.setWriteLowWatermark(low);
+        this.config.setWriteHighWatermark(high);
+        return this;
+    }
+
 }
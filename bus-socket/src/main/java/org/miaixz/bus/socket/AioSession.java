@@ -25,6 +25,7 @@
  ********************************************************************************/
 package org.miaixz.bus.socket;
 
+import org.miaixz.bus.socket.buffers.FileRegion;
 import org.miaixz.bus.socket.buffers.WriteBuffer;
 
 import java.io.IOException;
@@ -65,6 +66,14 @@ public abstract class AioSession {
      * 附件对象
      */
     private Object attachment;
+    /**
+     * 最近一次读取数据的时间, 由{@link org.miaixz.bus.socket.plugins.IdleStatePlugin}维护
+     */
+    private volatile long lastReadTime;
+    /**
+     * 最近一次输出数据的时间, 由{@link org.miaixz.bus.socket.plugins.IdleStatePlugin}维护
+     */
+    private volatile long lastWriteTime;
 
     /**
      * 获取WriteBuffer用以数据输出
@@ -78,6 +87,18 @@ public abstract class AioSession {
      */
     public abstract ByteBuffer readBuffer();
 
+    /**
+     * 输出文件区域, 与{@link #writeBuffer()}中的数据按写入顺序输出, 输出完毕后释放文件区域
+     * 仅TCP会话支持
+     *
+     * @param region 文件区域
+     * @throws IOException IO异常
+     */
+    public void write(FileRegion region) throws IOException {
+        region.release();
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * 强制关闭当前AIOSession。
      * <p>若此时还存留待输出的数据，则会导致该部分数据丢失</p>
@@ -118,6 +139,16 @@ public abstract class AioSession {
         return status != SESSION_STATUS_ENABLED;
     }
 
+    /**
+     * 当前会话是否可写, 不可写时应暂停输出直至收到{@link SocketStatus#WRITABILITY_CHANGED}事件
+     *
+     * @return true:可写,false:待输出的数据已超出高水位线
+     * @see WriteBuffer#isWritable()
+     */
+    public boolean isWritable() {
+        return writeBuffer().isWritable();
+    }
+
 
     /**
      * 获取附件对象
@@ -139,6 +170,42 @@ public abstract class AioSession {
         this.attachment = attachment;
     }
 
+    /**
+     * 最近一次读取数据的时间
+     *
+     * @return 时间戳, 未启用空闲检测时为0
+     */
+    public final long getLastReadTime() {
+        return lastReadTime;
+    }
+
+    /**
+     * 更新最近一次读取数据的时间
+     *
+     * @param lastReadTime 时间戳
+     */
+    public final void setLastReadTime(long lastReadTime) {
+        this.lastReadTime = lastReadTime;
+    }
+
+    /**
+     * 最近一次输出数据的时间
+     *
+     * @return 时间戳, 未启用空闲检测时为0
+     */
+    public final long getLastWriteTime() {
+        return lastWriteTime;
+    }
+
+    /**
+     * 更新最近一次输出数据的时间
+     *
+     * @param lastWriteTime 时间戳
+     */
+    public final void setLastWriteTime(long lastWriteTime) {
+        this.lastWriteTime = lastWriteTime;
+    }
+
     /**
      * 获取当前会话的本地连接地址
      *
@@ -25,6 +25,8 @@
  ********************************************************************************/
 package org.miaixz.bus.socket;
 
+import org.miaixz.bus.socket.buffers.SharedBuffer;
+
 /**
  * @author Kimi Liu
  * @since Java 17+
@@ -56,11 +58,22 @@ public interface GroupIo {
     void remove(AioSession session);
 
     /**
-     * 群发消息
+     * 群发消息, 会话写队列已满时阻塞等待
      *
      * @param group 群组信息
      * @param t     发送内容
      */
     void writeToGroup(String group, byte[] t);
 
+    /**
+     * 群发共享数据, 数据仅编码一次, 各会话共享同一份数据
+     * 不阻塞, 写队列已满的会话将跳过本次消息
+     * 调用后由群发方法释放调用方持有的引用
+     *
+     * @param group  群组信息
+     * @param shared 共享数据
+     * @return 成功加入写队列的会话数
+     */
+    int writeToGroup(String group, SharedBuffer shared);
+
 }
@@ -0,0 +1,283 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket;
+
+import org.miaixz.bus.logger.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 哈希时间轮定时器
+ * <p>
+ * 任务按到期时间散列到环形槽位中, 添加与取消均为O(1), 适合海量连接的超时检测这类精度要求不高、数量巨大的定时任务;
+ * 任务在时间轮线程中执行, 应避免阻塞
+ * </p>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class HashedWheelTimer {
+
+    /**
+     * 默认时间轮: 100ms一格, 共512格
+     */
+    public static final HashedWheelTimer DEFAULT_TIMER = new HashedWheelTimer("Quick Wheel Timer", 100, 512);
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_SHUTDOWN = 2;
+
+    /**
+     * 每次tick最多迁移的新任务数, 避免大量注册时时间轮停摆
+     */
+    private static final int MAX_TRANSFER = 100000;
+
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final long tickDuration;
+
+    private final Thread workerThread;
+
+    private volatile long startTime;
+
+    /**
+     * @param name         线程名
+     * @param tickDuration 每格时长(ms)
+     * @param wheelSize    槽位数, 向上取整为2的幂
+     */
+    public HashedWheelTimer(String name, long tickDuration, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize out of range: " + wheelSize);
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickDuration = tickDuration;
+        this.workerThread = new Thread(this::work, name);
+        this.workerThread.setDaemon(true);
+    }
+
+    /**
+     * 添加延时任务
+     *
+     * @param task  任务, 在时间轮线程中执行
+     * @param delay 延时(ms)
+     * @return 任务句柄, 可用于取消
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        start();
+        Timeout timeout = new Timeout(task, System.currentTimeMillis() + Math.max(0, delay));
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 停止时间轮, 未执行的任务将被丢弃
+     */
+    public void stop() {
+        if (this == DEFAULT_TIMER) {
+            throw new IllegalStateException("the default timer can not be stopped");
+        }
+        if (state.getAndSet(STATE_SHUTDOWN) == STATE_STARTED) {
+            workerThread.interrupt();
+        }
+    }
+
+    private void start() {
+        switch (state.get()) {
+            case STATE_INIT:
+                if (state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+                    startTime = System.currentTimeMillis();
+                    workerThread.start();
+                }
+                break;
+            case STATE_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("timer already stopped");
+        }
+    }
+
+    private void work() {
+        long tick = 0;
+        while (state.get() == STATE_STARTED) {
+            long deadline = startTime + (tick + 1) * tickDuration;
+            long sleep = deadline - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            transferTimeouts(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void transferTimeouts(long tick) {
+        Timeout timeout;
+        for (int i = 0; i < MAX_TRANSFER && null != (timeout = pendingTimeouts.poll()); i++) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = (timeout.deadline - startTime) / tickDuration;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // 已过期的任务放入当前槽位, 本次tick即执行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 任务句柄
+     */
+    public static final class Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+
+        private final long deadline;
+
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        private long remainingRounds;
+
+        private Timeout next;
+
+        private Timeout prev;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消任务, 槽位中的节点会在时间轮经过时移除
+         *
+         * @return 是否取消成功, 任务已执行时返回false
+         */
+        public boolean cancel() {
+            return state.compareAndSet(ST_INIT, ST_CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Logger.warn(t, "wheel timer task execute exception");
+            }
+        }
+    }
+
+    /**
+     * 槽位, 双向链表, 仅由时间轮线程访问
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            if (null == head) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+            while (null != timeout) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (null != timeout.prev) {
+                timeout.prev.next = next;
+            }
+            if (null != timeout.next) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+
+}
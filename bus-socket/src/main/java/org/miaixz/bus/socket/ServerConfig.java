@@ -101,6 +101,26 @@ public class ServerConfig {
      */
     private boolean lowMemory = false;
 
+    /**
+     * 聚合写模式: 将写缓冲中排队的多个内存块合并为一次vectored write输出
+     */
+    private boolean gatheringWrite = false;
+
+    /**
+     * UDP每次批量分发的数据报数量
+     */
+    private int datagramBatchSize = 1;
+
+    /**
+     * 写缓冲低水位线
+     */
+    private int writeLowWatermark;
+
+    /**
+     * 写缓冲高水位线, 0表示不启用
+     */
+    private int writeHighWatermark;
+
     /**
      * 获取默认内存块大小
      *
@@ -243,6 +263,38 @@ public class ServerConfig {
         this.lowMemory = lowMemory;
     }
 
+    public boolean isGatheringWrite() {
+        return gatheringWrite;
+    }
+
+    public void setGatheringWrite(boolean gatheringWrite) {
+        this.gatheringWrite = gatheringWrite;
+    }
+
+    public int getDatagramBatchSize() {
+        return datagramBatchSize;
+    }
+
+    public void setDatagramBatchSize(int datagramBatchSize) {
+        this.datagramBatchSize = datagramBatchSize;
+    }
+
+    public int getWriteLowWatermark() {
+        return writeLowWatermark;
+    }
+
+    public void setWriteLowWatermark(int writeLowWatermark) {
+        this.writeLowWatermark = writeLowWatermark;
+    }
+
+    public int getWriteHighWatermark() {
+        return writeHighWatermark;
+    }
+
+    public void setWriteHighWatermark(int writeHighWatermark) {
+        this.writeHighWatermark = writeHighWatermark;
+    }
+
     @Override
     public String toString() {
         return "ServerConfig{" +
@@ -259,6 +311,10 @@ public class ServerConfig {
                 ", threadNum=" + threadNum +
                 ", bufferFactory=" + bufferFactory +
                 ", aioEnhance=" + aioEnhance +
+                ", gatheringWrite=" + gatheringWrite +
+                ", datagramBatchSize=" + datagramBatchSize +
+                ", writeLowWatermark=" + writeLowWatermark +
+                ", writeHighWatermark=" + writeHighWatermark +
                 '}';
     }
 
@@ -95,6 +95,26 @@ public enum SocketStatus {
     /**
      * 服务端接受连接异常
      */
-    ACCEPT_EXCEPTION
+    ACCEPT_EXCEPTION,
+    /**
+     * 读空闲
+     * 在设定时间内未读取到数据,由{@link org.miaixz.bus.socket.plugins.IdleStatePlugin}触发
+     */
+    READ_IDLE,
+    /**
+     * 写空闲
+     * 在设定时间内未输出数据,由{@link org.miaixz.bus.socket.plugins.IdleStatePlugin}触发
+     */
+    WRITE_IDLE,
+    /**
+     * 读写空闲
+     * 在设定时间内既未读取也未输出数据,由{@link org.miaixz.bus.socket.plugins.IdleStatePlugin}触发
+     */
+    ALL_IDLE,
+    /**
+     * 可写状态变更
+     * 写缓冲中待输出的数据量超出高水位线或回落至低水位线以下时触发, 通过{@link AioSession#isWritable()}获取当前状态
+     */
+    WRITABILITY_CHANGED
 
 }
@@ -27,11 +27,15 @@ package org.miaixz.bus.socket;
 
 import org.miaixz.bus.core.xyz.IoKit;
 import org.miaixz.bus.socket.buffers.BufferPage;
+import org.miaixz.bus.socket.buffers.FileRegion;
 import org.miaixz.bus.socket.buffers.VirtualBuffer;
 import org.miaixz.bus.socket.buffers.WriteBuffer;
+import org.miaixz.bus.socket.channel.AsynchronousSocketChannelProxy;
+import org.miaixz.bus.socket.channel.EnhanceAsynchronousSocketChannel;
 import org.miaixz.bus.socket.handler.ReadCompletionHandler;
 import org.miaixz.bus.socket.handler.WriteCompletionHandler;
 import org.miaixz.bus.socket.process.MessageProcessor;
+import org.miaixz.bus.socket.process.VirtualThreadMessageProcessor;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -107,6 +111,23 @@ public class TcpAioSession extends AioSession {
      * 同步输入流
      */
     private InputStream inputStream;
+    /**
+     * 是否使用聚合写
+     */
+    private final boolean gatheringWrite;
+    /**
+     * 聚合写中的内存块
+     */
+    private VirtualBuffer[] gatheringBuffers;
+    private ByteBuffer[] gatheringArray;
+    /**
+     * 聚合写中首个未输出完毕的内存块位置
+     */
+    private int gatheringOffset;
+    /**
+     * 聚合写中的内存块数量
+     */
+    private int gatheringCount;
 
     private int modCount = 0;
 
@@ -123,6 +144,8 @@ public class TcpAioSession extends AioSession {
         this.writeCompletionHandler = writeCompletionHandler;
         this.serverConfig = config;
         this.function = supplier;
+        // SSL等代理通道不支持vectored write
+        this.gatheringWrite = config.isGatheringWrite() && !(channel instanceof AsynchronousSocketChannelProxy);
         Consumer<WriteBuffer> flushConsumer = var -> {
             if (!semaphore.tryAcquire()) {
                 return;
@@ -135,6 +158,9 @@ public class TcpAioSession extends AioSession {
             }
         };
         byteBuf = new WriteBuffer(bufferPage, flushConsumer, serverConfig.getWriteBufferSize(), serverConfig.getWriteBufferCapacity());
+        if (config.getWriteHighWatermark() > 0) {
+            byteBuf.watermark(config.getWriteLowWatermark(), config.getWriteHighWatermark(), () -> config.getProcessor().stateEvent(this, SocketStatus.WRITABILITY_CHANGED, null));
+        }
         // 触发状态机
         config.getProcessor().stateEvent(this, SocketStatus.NEW_SESSION, null);
         doRead();
@@ -156,9 +182,24 @@ public class TcpAioSession extends AioSession {
      * <p>需要调用控制同步</p>
      */
     public void writeCompleted() {
+        if (gatheringCount > 0) {
+            // 回收已输出完毕的内存块, 剩余部分继续输出
+            while (gatheringOffset < gatheringCount && !gatheringBuffers[gatheringOffset].buffer().hasRemaining()) {
+                gatheringBuffers[gatheringOffset].clean();
+                gatheringBuffers[gatheringOffset] = null;
+                gatheringArray[gatheringOffset] = null;
+                gatheringOffset++;
+            }
+            if (gatheringOffset < gatheringCount) {
+                continueGatheringWrite();
+                return;
+            }
+            gatheringOffset = 0;
+            gatheringCount = 0;
+        }
         if (writeBuffer == null) {
             writeBuffer = byteBuf.pollItem();
-        } else if (!writeBuffer.buffer().hasRemaining()) {
+        } else if (!writeBuffer.hasRemaining()) {
             writeBuffer.clean();
 //            byteBuf.reuse(writeBuffer);
             writeBuffer = byteBuf.pollItem();
@@ -213,11 +254,18 @@ public class TcpAioSession extends AioSession {
                     writeBuffer.clean();
                     writeBuffer = null;
                 }
+                for (int i = gatheringOffset; i < gatheringCount; i++) {
+                    gatheringBuffers[i].clean();
+                    gatheringBuffers[i] = null;
+                    gatheringArray[i] = null;
+                }
+                gatheringOffset = 0;
+                gatheringCount = 0;
             } finally {
                 IoKit.close(channel);
                 serverConfig.getProcessor().stateEvent(this, SocketStatus.SESSION_CLOSED, null);
             }
-        } else if ((writeBuffer == null || !writeBuffer.buffer().hasRemaining()) && byteBuf.isEmpty()) {
+        } else if ((writeBuffer == null || !writeBuffer.hasRemaining()) && gatheringCount == 0 && byteBuf.isEmpty()) {
             close(true);
         } else {
             serverConfig.getProcessor().stateEvent(this, SocketStatus.SESSION_CLOSING, null);
@@ -282,7 +330,12 @@ public class TcpAioSession extends AioSession {
         }
 
         if (eof || status == SESSION_STATUS_CLOSING) {
-            close(false);
+            // 虚拟线程中仍有未处理完的消息时, 由其处理完后关闭, 保证响应能够写出
+            if (status == SESSION_STATUS_CLOSING
+                    || !(messageProcessor instanceof VirtualThreadMessageProcessor<?> processor)
+                    || !processor.closeAfterDrained(this)) {
+                close(false);
+            }
             messageProcessor.stateEvent(this, SocketStatus.INPUT_SHUTDOWN, null);
             return;
         }
@@ -336,7 +389,65 @@ public class TcpAioSession extends AioSession {
         if (monitor != null) {
             monitor.beforeWrite(this);
         }
-        channel.write(writeBuffer.buffer(), 0L, TimeUnit.MILLISECONDS, this, writeCompletionHandler);
+        FileRegion region = writeBuffer.region();
+        if (region == null && gatheringWrite && gather(writeBuffer)) {
+            continueGatheringWrite();
+        } else if (region == null) {
+            channel.write(writeBuffer.buffer(), 0L, TimeUnit.MILLISECONDS, this, writeCompletionHandler);
+        } else if (channel instanceof EnhanceAsynchronousSocketChannel) {
+            // 零拷贝: 由内核直接将文件内容写入socket
+            ((EnhanceAsynchronousSocketChannel) channel).write(region, this, writeCompletionHandler);
+        } else {
+            // 启用SSL或使用JDK原生AIO时, 按块映射文件输出
+            try {
+                channel.write(region.mappedBuffer(), 0L, TimeUnit.MILLISECONDS, this, writeCompletionHandler);
+            } catch (IOException e) {
+                writeCompletionHandler.failed(e, this);
+            }
+        }
+    }
+
+    /**
+     * 将当前内存块与队列中排队的内存块合并为一次聚合写
+     *
+     * @param writeBuffer 当前待输出的内存块
+     * @return 队列中没有其它内存块时返回false, 仍按单个内存块输出
+     */
+    private boolean gather(VirtualBuffer writeBuffer) {
+        if (gatheringBuffers == null) {
+            int size = serverConfig.getWriteBufferCapacity() + 1;
+            gatheringBuffers = new VirtualBuffer[size];
+            gatheringArray = new ByteBuffer[size];
+        }
+        int count = byteBuf.pollItems(gatheringBuffers, 1);
+        if (count == 0) {
+            return false;
+        }
+        gatheringBuffers[0] = writeBuffer;
+        gatheringCount = count + 1;
+        gatheringOffset = 0;
+        for (int i = 0; i < gatheringCount; i++) {
+            gatheringArray[i] = gatheringBuffers[i].buffer();
+        }
+        this.writeBuffer = null;
+        return true;
+    }
+
+    private void continueGatheringWrite() {
+        channel.write(gatheringArray, gatheringOffset, gatheringCount - gatheringOffset, 0L, TimeUnit.MILLISECONDS, this, writeCompletionHandler.gathering());
+    }
+
+    /**
+     * 输出文件区域, 与{@link #writeBuffer()}中的数据按写入顺序输出
+     * 未启用SSL时通过{@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}零拷贝输出
+     *
+     * @param region 文件区域
+     * @throws IOException 会话已关闭
+     */
+    @Override
+    public void write(FileRegion region) throws IOException {
+        byteBuf.write(region);
+        byteBuf.flush();
     }
 
     /**
@@ -57,6 +57,10 @@ public class UdpAioSession extends AioSession {
             }
         };
         this.writeBuffer = new WriteBuffer(bufferPage, consumer, udpChannel.config.getWriteBufferSize(), 1);
+        ServerConfig config = udpChannel.config;
+        if (config.getWriteHighWatermark() > 0) {
+            writeBuffer.watermark(config.getWriteLowWatermark(), config.getWriteHighWatermark(), () -> config.getProcessor().stateEvent(this, SocketStatus.WRITABILITY_CHANGED, null));
+        }
         udpChannel.config.getProcessor().stateEvent(this, SocketStatus.NEW_SESSION, null);
     }
 
@@ -25,13 +25,17 @@
  ********************************************************************************/
 package org.miaixz.bus.socket;
 
+import org.miaixz.bus.logger.Logger;
 import org.miaixz.bus.socket.buffers.BufferFactory;
 import org.miaixz.bus.socket.buffers.BufferPool;
 import org.miaixz.bus.socket.process.MessageProcessor;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
 import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * UDP服务启动类
@@ -52,6 +56,10 @@ public class UdpBootstrap {
     private BufferPool innerBufferPool = null;
     private WorkerRegister workerRegister;
     private boolean innerWorker = false;
+    /**
+     * 多Reactor模式下各通道独占的工作线程组
+     */
+    private final List<WorkerRegister> reactors = new ArrayList<>();
 
     public <Request> UdpBootstrap(Protocol<Request> protocol, MessageProcessor<Request> messageProcessor, WorkerRegister workerRegister) {
         this(protocol, messageProcessor);
@@ -107,6 +115,50 @@ public class UdpBootstrap {
         return new UdpChannel(channel, workerRegister, config, bufferPool.allocateBufferPage());
     }
 
+    /**
+     * 基于SO_REUSEPORT在同一端口开启多个UDP通道, 每个通道拥有独立的Selector及工作线程,
+     * 由内核将数据报分散至各通道, 突破单个Selector的处理瓶颈。工作线程数按{@link #setThreadNum(int)}平均分配
+     * 平台不支持SO_REUSEPORT时退化为单通道模式
+     *
+     * @param host       绑定本机地址
+     * @param port       绑定端口号, 必须指定
+     * @param reactorNum 通道数量
+     * @return UDP通道
+     * @throws IOException 如果发生 I/O 错误
+     */
+    public List<UdpChannel> open(String host, int port, int reactorNum) throws IOException {
+        if (port <= 0 || reactorNum <= 0) {
+            throw new IllegalArgumentException("port and reactorNum must be positive integers");
+        }
+        if (reactorNum > 1) {
+            try (DatagramChannel probe = DatagramChannel.open()) {
+                if (!probe.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                    Logger.warn("SO_REUSEPORT is not supported, fallback to single channel");
+                    reactorNum = 1;
+                }
+            }
+        }
+        if (bufferPool == null) {
+            this.bufferPool = config.getBufferFactory().create();
+            this.innerBufferPool = bufferPool;
+        }
+        InetSocketAddress inetSocketAddress = host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+        int threadNum = Math.max(1, config.getThreadNum() / reactorNum);
+        List<UdpChannel> channels = new ArrayList<>(reactorNum);
+        for (int i = 0; i < reactorNum; i++) {
+            WorkerRegister reactor = new WorkerRegister(bufferPool, threadNum);
+            reactors.add(reactor);
+            DatagramChannel channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            if (reactorNum > 1) {
+                channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            channel.bind(inetSocketAddress);
+            channels.add(new UdpChannel(channel, reactor, config, bufferPool.allocateBufferPage()));
+        }
+        return channels;
+    }
+
     private synchronized void initWorker() {
         if (workerRegister != null) {
             return;
@@ -117,6 +169,10 @@ public class UdpBootstrap {
         if (innerWorker) {
             workerRegister.shutdown();
         }
+        for (WorkerRegister reactor : reactors) {
+            reactor.shutdown();
+        }
+        reactors.clear();
         if (innerBufferPool != null) {
             innerBufferPool.release();
         }
@@ -143,6 +199,21 @@ public class UdpBootstrap {
         return this;
     }
 
+    /**
+     * 设置每次批量分发至工作线程的数据报数量
+     * 每次读事件最多读取max(16, size)个数据报, 按批次交由工作线程依次处理
+     *
+     * @param size 批量大小, 默认为1即逐个分发
+     * @return the object
+     */
+    public final UdpBootstrap setDatagramBatchSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("datagram batch size must be a positive integer");
+        }
+        this.config.setDatagramBatchSize(size);
+        return this;
+    }
+
     /**
      * 设置内存池
      * 通过该方法设置的内存池，在AioQuickServer执行shutdown时不会触发内存池的释放。
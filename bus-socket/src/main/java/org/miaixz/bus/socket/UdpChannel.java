@@ -144,6 +144,7 @@ public class UdpChannel {
         if (config.getMonitor() != null) {
             config.getMonitor().afterWrite(session, size);
         }
+        session.writeBuffer().written(size);
         return size;
     }
 
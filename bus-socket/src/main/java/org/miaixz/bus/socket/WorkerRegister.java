@@ -150,8 +150,12 @@ public final class WorkerRegister implements Runnable {
     }
 
     private boolean doRead(UdpChannel channel) throws IOException {
-        int count = MAX_READ_TIMES;
         ServerConfig config = channel.config;
+        int batchSize = config.getDatagramBatchSize();
+        int count = Math.max(MAX_READ_TIMES, batchSize);
+        SocketAddress[] remotes = null;
+        VirtualBuffer[] buffers = null;
+        int size = 0;
         while (count-- > 0) {
             if (standbyBuffer == null) {
                 standbyBuffer = channel.getBufferPage().allocate(config.getReadBufferSize());
@@ -160,43 +164,81 @@ public final class WorkerRegister implements Runnable {
             SocketAddress remote = channel.getChannel().receive(buffer);
             if (remote == null) {
                 buffer.clear();
-                return true;
+                break;
             }
             VirtualBuffer readyBuffer = standbyBuffer;
             standbyBuffer = channel.getBufferPage().allocate(config.getReadBufferSize());
             buffer.flip();
-            Runnable runnable = () -> {
-                // 解码
-                UdpAioSession session = new UdpAioSession(channel, remote, bufferPool.allocateBufferPage());
-                try {
-                    NetMonitor netMonitor = config.getMonitor();
-                    if (netMonitor != null) {
-                        netMonitor.beforeRead(session);
-                        netMonitor.afterRead(session, buffer.remaining());
-                    }
-                    do {
-                        Object request = config.getProtocol().decode(buffer, session);
-                        // 理论上每个UDP包都是一个完整的消息
-                        if (request == null) {
-                            config.getProcessor().stateEvent(session, SocketStatus.DECODE_EXCEPTION, new InternalException("decode result is null, buffer size: " + buffer.remaining()));
-                            break;
-                        } else {
-                            config.getProcessor().process(session, request);
-                        }
-                    } while (buffer.hasRemaining());
-                } catch (Throwable e) {
-                    e.printStackTrace();
-                    config.getProcessor().stateEvent(session, SocketStatus.DECODE_EXCEPTION, e);
-                } finally {
-                    session.writeBuffer().flush();
-                    readyBuffer.clean();
+            if (buffers == null) {
+                remotes = new SocketAddress[batchSize];
+                buffers = new VirtualBuffer[batchSize];
+            }
+            remotes[size] = remote;
+            buffers[size++] = readyBuffer;
+            // 攒满一批后统一分发, 降低任务调度的开销
+            if (size == batchSize) {
+                if (!dispatch(channel, remotes, buffers, size)) {
+                    return false;
                 }
-            };
-            if (!requestQueue.offer(runnable)) {
-                return false;
+                remotes = null;
+                buffers = null;
+                size = 0;
+            }
+        }
+        return size == 0 || dispatch(channel, remotes, buffers, size);
+    }
+
+    /**
+     * 将一批数据报作为一个任务分发至工作线程
+     *
+     * @return false:任务队列已满
+     */
+    private boolean dispatch(UdpChannel channel, SocketAddress[] remotes, VirtualBuffer[] buffers, int size) {
+        Runnable runnable = () -> {
+            for (int i = 0; i < size; i++) {
+                handle(channel, remotes[i], buffers[i]);
+            }
+        };
+        if (requestQueue.offer(runnable)) {
+            return true;
+        }
+        for (int i = 0; i < size; i++) {
+            buffers[i].clean();
+        }
+        return false;
+    }
+
+    /**
+     * 解码并处理单个数据报
+     */
+    private void handle(UdpChannel channel, SocketAddress remote, VirtualBuffer readyBuffer) {
+        ServerConfig config = channel.config;
+        ByteBuffer buffer = readyBuffer.buffer();
+        // 解码
+        UdpAioSession session = new UdpAioSession(channel, remote, bufferPool.allocateBufferPage());
+        try {
+            NetMonitor netMonitor = config.getMonitor();
+            if (netMonitor != null) {
+                netMonitor.beforeRead(session);
+                netMonitor.afterRead(session, buffer.remaining());
             }
+            do {
+                Object request = config.getProtocol().decode(buffer, session);
+                // 理论上每个UDP包都是一个完整的消息
+                if (request == null) {
+                    config.getProcessor().stateEvent(session, SocketStatus.DECODE_EXCEPTION, new InternalException("decode result is null, buffer size: " + buffer.remaining()));
+                    break;
+                } else {
+                    config.getProcessor().process(session, request);
+                }
+            } while (buffer.hasRemaining());
+        } catch (Throwable e) {
+            e.printStackTrace();
+            config.getProcessor().stateEvent(session, SocketStatus.DECODE_EXCEPTION, e);
+        } finally {
+            session.writeBuffer().flush();
+            readyBuffer.clean();
         }
-        return true;
     }
 
     void shutdown() {
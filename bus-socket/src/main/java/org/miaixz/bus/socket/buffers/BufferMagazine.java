@@ -0,0 +1,148 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.buffers;
+
+/**
+ * 线程私有的虚拟Buffer缓存(magazine)
+ * 按容量的2次幂划分规格, 缓存由所属线程释放的虚拟Buffer, 申请时优先从缓存中获取,
+ * 避免同一内存页上多个线程竞争锁。仅由所属的{@link BufferThread}访问, 无需同步
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+final class BufferMagazine {
+
+    /**
+     * 可缓存的最大规格: 64KB
+     */
+    private static final int MAX_CLASS = 16;
+    /**
+     * 每个规格最多缓存的虚拟Buffer数量
+     */
+    private static final int CLASS_CAPACITY = 16;
+    /**
+     * 当前缓存所属的内存页
+     */
+    private final BufferPage page;
+    /**
+     * 按规格存放的虚拟Buffer, 第k组内的Buffer容量处于[2^k, 2^(k+1))之间
+     */
+    private final VirtualBuffer[][] stacks = new VirtualBuffer[MAX_CLASS + 1][CLASS_CAPACITY];
+    /**
+     * 各规格中已缓存的数量
+     */
+    private final int[] counts = new int[MAX_CLASS + 1];
+    /**
+     * 允许缓存的最大字节数
+     */
+    private final int maxCachedBytes;
+    /**
+     * 当前已缓存的字节数
+     */
+    private int cachedBytes;
+
+    BufferMagazine(BufferPage page, int maxCachedBytes) {
+        this.page = page;
+        this.maxCachedBytes = maxCachedBytes;
+    }
+
+    BufferPage page() {
+        return page;
+    }
+
+    /**
+     * 从缓存中获取容量不小于size的虚拟Buffer
+     *
+     * @param size 申请大小
+     * @return 虚拟Buffer, 无可用缓存时返回null
+     */
+    VirtualBuffer poll(int size) {
+        int index = sizeClass(size);
+        if (index > MAX_CLASS) {
+            return null;
+        }
+        // 同规格内的Buffer容量不一定满足, 仅检查栈顶元素, 更高一级的规格则必定满足
+        VirtualBuffer buffer = pop(index, size);
+        if (buffer == null && index < MAX_CLASS) {
+            buffer = pop(index + 1, size);
+        }
+        return buffer;
+    }
+
+    private VirtualBuffer pop(int index, int size) {
+        int count = counts[index];
+        if (count == 0) {
+            return null;
+        }
+        VirtualBuffer buffer = stacks[index][count - 1];
+        if (buffer.getCapacity() < size) {
+            return null;
+        }
+        stacks[index][count - 1] = null;
+        counts[index] = count - 1;
+        cachedBytes -= buffer.getCapacity();
+        return buffer;
+    }
+
+    /**
+     * 缓存已释放的虚拟Buffer
+     *
+     * @param buffer 虚拟Buffer
+     * @return false:缓存已满, 需交由内存页回收
+     */
+    boolean offer(VirtualBuffer buffer) {
+        int capacity = buffer.getCapacity();
+        int index = sizeClass(capacity);
+        if (index > MAX_CLASS || counts[index] == CLASS_CAPACITY || cachedBytes + capacity > maxCachedBytes) {
+            return false;
+        }
+        stacks[index][counts[index]++] = buffer;
+        cachedBytes += capacity;
+        return true;
+    }
+
+    /**
+     * 将缓存的虚拟Buffer全部归还至内存页
+     */
+    void flush() {
+        for (int i = 0; i <= MAX_CLASS; i++) {
+            for (int j = 0; j < counts[i]; j++) {
+                page.recycle(stacks[i][j]);
+                stacks[i][j] = null;
+            }
+            counts[i] = 0;
+        }
+        cachedBytes = 0;
+    }
+
+    /**
+     * 容量所属的规格: floor(log2(size))
+     */
+    private static int sizeClass(int size) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(size, 1));
+    }
+
+}
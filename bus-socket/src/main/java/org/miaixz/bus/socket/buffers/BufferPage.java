@@ -31,6 +31,7 @@ import org.miaixz.bus.logger.Logger;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -65,6 +66,18 @@ public final class BufferPage {
      * 内存页是否处于空闲状态
      */
     private boolean idle = true;
+    /**
+     * 线程缓存命中次数
+     */
+    private final LongAdder cacheHits = new LongAdder();
+    /**
+     * 线程缓存未命中次数
+     */
+    private final LongAdder cacheMisses = new LongAdder();
+    /**
+     * 在非所属线程释放的次数
+     */
+    private final LongAdder crossThreadFrees = new LongAdder();
 
     /**
      * @param size   缓存页大小
@@ -99,13 +112,50 @@ public final class BufferPage {
         Thread thread = Thread.currentThread();
         if (thread instanceof BufferThread) {
             BufferThread bufferThread = (BufferThread) thread;
-            virtualBuffer = bufferThread.getPageIndex() < poolPages.length ? poolPages[bufferThread.getPageIndex()].allocate0(size) : allocate0(size);
+            BufferPage page = bufferThread.getPageIndex() < poolPages.length ? poolPages[bufferThread.getPageIndex()] : this;
+            virtualBuffer = page.allocate0(size, bufferThread);
         } else {
+            cacheMisses.increment();
             virtualBuffer = allocate0(size);
         }
         return virtualBuffer == null ? new VirtualBuffer(null, allocate0(size, false), 0, 0) : virtualBuffer;
     }
 
+    /**
+     * 优先从线程缓存中申请虚拟内存
+     *
+     * @param size   申请大小
+     * @param thread 当前线程
+     * @return 虚拟内存对象
+     */
+    private VirtualBuffer allocate0(final int size, BufferThread thread) {
+        BufferMagazine magazine = thread.getMagazine();
+        if (magazine == null && buffer.capacity() > 0) {
+            magazine = new BufferMagazine(this, buffer.capacity() >> 4);
+            thread.setMagazine(magazine);
+        }
+        if (magazine == null || magazine.page() != this) {
+            cacheMisses.increment();
+            return allocate0(size);
+        }
+        VirtualBuffer cached = magazine.poll(size);
+        if (cached != null) {
+            idle = false;
+            cacheHits.increment();
+            cached.buffer().clear();
+            cached.buffer(cached.buffer());
+            return cached;
+        }
+        cacheMisses.increment();
+        VirtualBuffer virtualBuffer = allocate0(size);
+        if (virtualBuffer == null) {
+            // 内存页空间不足, 归还线程缓存后重试
+            magazine.flush();
+            virtualBuffer = allocate0(size);
+        }
+        return virtualBuffer;
+    }
+
     /**
      * 申请虚拟内存
      *
@@ -223,9 +273,48 @@ public final class BufferPage {
      * @param cleanBuffer 待回收的虚拟内存
      */
     void clean(VirtualBuffer cleanBuffer) {
+        Thread thread = Thread.currentThread();
+        BufferMagazine magazine = thread instanceof BufferThread ? ((BufferThread) thread).getMagazine() : null;
+        if (magazine != null && magazine.page() == this) {
+            if (magazine.offer(cleanBuffer)) {
+                return;
+            }
+        } else {
+            crossThreadFrees.increment();
+        }
+        recycle(cleanBuffer);
+    }
+
+    /**
+     * 归还至当前内存页的待回收队列
+     *
+     * @param cleanBuffer 待回收的虚拟内存
+     */
+    void recycle(VirtualBuffer cleanBuffer) {
         cleanBuffers.offer(cleanBuffer);
     }
 
+    /**
+     * @return 线程缓存命中次数
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return 线程缓存未命中次数
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return 在非所属线程释放的次数
+     */
+    public long getCrossThreadFrees() {
+        return crossThreadFrees.sum();
+    }
+
     /**
      * 尝试回收缓冲区
      */
@@ -295,7 +384,8 @@ public final class BufferPage {
 
     @Override
     public String toString() {
-        return "BufferPage{availableBuffers=" + availableBuffers + ", cleanBuffers=" + cleanBuffers + '}';
+        return "BufferPage{availableBuffers=" + availableBuffers + ", cleanBuffers=" + cleanBuffers
+                + ", cacheHits=" + getCacheHits() + ", cacheMisses=" + getCacheMisses() + ", crossThreadFrees=" + getCrossThreadFrees() + '}';
     }
 
 }
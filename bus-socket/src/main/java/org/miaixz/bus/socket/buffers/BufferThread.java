@@ -32,6 +32,10 @@ package org.miaixz.bus.socket.buffers;
 public final class BufferThread extends Thread {
 
     private int pageIndex;
+    /**
+     * 线程私有的虚拟Buffer缓存
+     */
+    private BufferMagazine magazine;
 
     public BufferThread(Runnable target, String name) {
         super(target, name);
@@ -45,4 +49,25 @@ public final class BufferThread extends Thread {
         this.pageIndex = pageIndex;
     }
 
+    BufferMagazine getMagazine() {
+        return magazine;
+    }
+
+    void setMagazine(BufferMagazine magazine) {
+        this.magazine = magazine;
+    }
+
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            // 线程退出时归还缓存, 避免内存页空间泄露
+            if (magazine != null) {
+                magazine.flush();
+                magazine = null;
+            }
+        }
+    }
+
 }
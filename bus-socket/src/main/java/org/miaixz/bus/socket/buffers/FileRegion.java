@@ -0,0 +1,157 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.buffers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 文件区域, 表示待输出的一段文件内容
+ * <p>
+ * 通道支持时通过{@link FileChannel#transferTo(long, long, WritableByteChannel)}直接由内核输出,
+ * 否则(如启用SSL)按块映射为{@link MappedByteBuffer}输出, 均无需将文件读入缓冲区
+ * </p>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public final class FileRegion {
+
+    /**
+     * 映射输出时单块的最大长度
+     */
+    private static final int MAPPED_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final FileChannel channel;
+    /**
+     * 区域在文件中的起始位置
+     */
+    private final long position;
+    /**
+     * 区域长度
+     */
+    private final long count;
+    /**
+     * 输出完毕或释放时是否关闭文件通道
+     */
+    private final boolean autoClose;
+    /**
+     * 已确认输出的字节数, 不含当前映射块中已输出的部分
+     */
+    private long transferred;
+    /**
+     * 当前映射块
+     */
+    private ByteBuffer mapped;
+
+    /**
+     * @param channel   文件通道
+     * @param position  起始位置
+     * @param count     长度
+     * @param autoClose 输出完毕或释放时是否关闭文件通道
+     */
+    public FileRegion(FileChannel channel, long position, long count, boolean autoClose) {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("position: " + position + ", count: " + count);
+        }
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+        this.autoClose = autoClose;
+    }
+
+    /**
+     * 输出整个文件, 完毕后自动关闭
+     *
+     * @param path 文件路径
+     * @return 文件区域
+     * @throws IOException 打开文件失败
+     */
+    public static FileRegion of(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new FileRegion(channel, 0, channel.size(), true);
+    }
+
+    /**
+     * 剩余待输出的字节数
+     *
+     * @return 字节数
+     */
+    public long remaining() {
+        return count - transferred - (null == mapped ? 0 : mapped.position());
+    }
+
+    /**
+     * 通过{@link FileChannel#transferTo(long, long, WritableByteChannel)}输出, 非阻塞通道可能只输出部分数据
+     *
+     * @param target 目标通道
+     * @return 本次输出的字节数
+     * @throws IOException IO异常
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long size = channel.transferTo(position + transferred, count - transferred, target);
+        transferred += size;
+        return size;
+    }
+
+    /**
+     * 获取待输出的映射块, 当前块输出完毕后映射下一块
+     *
+     * @return 映射块
+     * @throws IOException 映射失败
+     */
+    public ByteBuffer mappedBuffer() throws IOException {
+        if (null != mapped) {
+            if (mapped.hasRemaining()) {
+                return mapped;
+            }
+            transferred += mapped.position();
+            mapped = null;
+        }
+        long size = Math.min(MAPPED_CHUNK_SIZE, count - transferred);
+        mapped = size == 0 ? ByteBuffer.allocate(0) : channel.map(FileChannel.MapMode.READ_ONLY, position + transferred, size);
+        return mapped;
+    }
+
+    /**
+     * 释放文件区域
+     */
+    public void release() {
+        mapped = null;
+        if (autoClose) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.buffers;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 引用计数的共享缓冲区
+ * 同一份数据仅编码一次, 各会话的写队列中存放其只读视图, 所有视图输出完毕且持有者释放后回收内存
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public final class SharedBuffer {
+
+    /**
+     * 数据所在的虚拟Buffer
+     */
+    private final VirtualBuffer source;
+    /**
+     * 引用计数, 创建者持有一个引用
+     */
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+
+    /**
+     * @param source 已写入数据并处于可读状态的虚拟Buffer, 引用归零时释放
+     */
+    public SharedBuffer(VirtualBuffer source) {
+        this.source = source;
+    }
+
+    /**
+     * 包装字节数组, 不产生拷贝
+     *
+     * @param data 共享数据, 共享期间不可修改
+     * @return 共享缓冲区
+     */
+    public static SharedBuffer wrap(byte[] data) {
+        return new SharedBuffer(VirtualBuffer.wrap(ByteBuffer.wrap(data)));
+    }
+
+    /**
+     * 将数据拷贝至内存页中
+     *
+     * @param bufferPage 内存页
+     * @param data       共享数据
+     * @return 共享缓冲区
+     */
+    public static SharedBuffer of(BufferPage bufferPage, byte[] data) {
+        VirtualBuffer virtualBuffer = bufferPage.allocate(data.length);
+        virtualBuffer.buffer().put(data).flip();
+        return new SharedBuffer(virtualBuffer);
+    }
+
+    /**
+     * 增加引用并获取一个独立读写位置的只读视图, 视图释放时减少引用
+     *
+     * @return 虚拟缓冲区
+     */
+    VirtualBuffer retainedView() {
+        retain();
+        return VirtualBuffer.wrap(this, source.buffer().asReadOnlyBuffer());
+    }
+
+    /**
+     * 增加引用
+     */
+    public void retain() {
+        int count;
+        do {
+            count = refCnt.get();
+            if (count <= 0) {
+                throw new IllegalStateException("shared buffer has released");
+            }
+        } while (!refCnt.compareAndSet(count, count + 1));
+    }
+
+    /**
+     * 减少引用, 归零时回收内存
+     */
+    public void release() {
+        int count = refCnt.decrementAndGet();
+        if (count == 0) {
+            source.clean();
+        } else if (count < 0) {
+            throw new IllegalStateException("shared buffer has released");
+        }
+    }
+
+    /**
+     * @return 当前引用数
+     */
+    public int refCnt() {
+        return refCnt.get();
+    }
+
+    /**
+     * @return 共享数据长度
+     */
+    public int size() {
+        return source.buffer().remaining();
+    }
+
+}
@@ -64,6 +64,14 @@ public final class VirtualBuffer {
      * 缓冲区容量
      */
     private int capacity;
+    /**
+     * 待输出的文件区域, 不为空时当前对象仅作为写队列中的占位
+     */
+    private FileRegion region;
+    /**
+     * 引用的共享缓冲区, 释放时减少其引用计数
+     */
+    private SharedBuffer shared;
 
     public VirtualBuffer(BufferPage bufferPage, ByteBuffer buffer, int parentPosition, int parentLimit) {
         this.bufferPage = bufferPage;
@@ -77,6 +85,49 @@ public final class VirtualBuffer {
         return new VirtualBuffer(null, buffer, 0, 0);
     }
 
+    /**
+     * 将文件区域包装为写队列中的元素
+     *
+     * @param region 文件区域
+     * @return 虚拟缓冲区
+     */
+    public static VirtualBuffer wrap(FileRegion region) {
+        VirtualBuffer virtualBuffer = new VirtualBuffer(null, ByteBuffer.allocate(0), 0, 0);
+        virtualBuffer.region = region;
+        return virtualBuffer;
+    }
+
+    /**
+     * 包装共享缓冲区的视图
+     *
+     * @param shared 共享缓冲区
+     * @param view   视图
+     * @return 虚拟缓冲区
+     */
+    static VirtualBuffer wrap(SharedBuffer shared, ByteBuffer view) {
+        VirtualBuffer virtualBuffer = new VirtualBuffer(null, view, 0, 0);
+        virtualBuffer.shared = shared;
+        return virtualBuffer;
+    }
+
+    /**
+     * 获取待输出的文件区域
+     *
+     * @return 文件区域, 普通缓冲区返回null
+     */
+    public FileRegion region() {
+        return region;
+    }
+
+    /**
+     * 是否还有待输出的数据
+     *
+     * @return true:有,false:无
+     */
+    public boolean hasRemaining() {
+        return null == region ? buffer.hasRemaining() : region.remaining() > 0;
+    }
+
     public int getParentPosition() {
         return parentPosition;
     }
@@ -127,6 +178,12 @@ public final class VirtualBuffer {
      */
     public void clean() {
         if (clean.tryAcquire()) {
+            if (region != null) {
+                region.release();
+            }
+            if (shared != null) {
+                shared.release();
+            }
             if (bufferPage != null) {
                 bufferPage.clean(this);
             }
@@ -31,6 +31,8 @@ import org.miaixz.bus.socket.process.MessageProcessor;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -82,6 +84,26 @@ public class WriteBuffer extends OutputStream {
      * 辅助8字节以内输出的缓存组数
      */
     private byte[] cacheByte;
+    /**
+     * 待输出的数据量, 仅在设置水位线后统计
+     */
+    private final AtomicLong pendingBytes = new AtomicLong();
+    /**
+     * 低水位线, 待输出数据量回落至该值以下时恢复可写
+     */
+    private int lowWatermark;
+    /**
+     * 高水位线, 待输出数据量超出该值时不可写, 0表示未启用
+     */
+    private int highWatermark;
+    /**
+     * 是否可写
+     */
+    private final AtomicBoolean writable = new AtomicBoolean(true);
+    /**
+     * 可写状态变更回调
+     */
+    private Runnable writabilityListener;
 
     public WriteBuffer(BufferPage bufferPage, Consumer<WriteBuffer> consumer, int chunkSize, int capacity) {
         this.bufferPage = bufferPage;
@@ -118,12 +140,16 @@ public class WriteBuffer extends OutputStream {
      * @param b 待输出数值
      * @see #write(int)
      */
-    public synchronized void writeByte(byte b) {
-        if (writeInBuf == null) {
-            writeInBuf = bufferPage.allocate(chunkSize);
+    public void writeByte(byte b) {
+        synchronized (this) {
+            if (writeInBuf == null) {
+                writeInBuf = bufferPage.allocate(chunkSize);
+            }
+            writeInBuf.buffer().put(b);
+            increase(1);
+            flushWriteBuffer(false);
         }
-        writeInBuf.buffer().put(b);
-        flushWriteBuffer(false);
+        checkWritable();
     }
 
     private void flushWriteBuffer(boolean forceFlush) {
@@ -137,6 +163,15 @@ public class WriteBuffer extends OutputStream {
         writeInBuf.buffer().flip();
         VirtualBuffer virtualBuffer = writeInBuf;
         writeInBuf = null;
+        offer(virtualBuffer);
+    }
+
+    /**
+     * 将数据加入待输出队列, 队列已满时等待
+     *
+     * @param virtualBuffer 待输出数据
+     */
+    private void offer(VirtualBuffer virtualBuffer) {
         try {
             while (count == items.length) {
                 this.wait();
@@ -192,7 +227,15 @@ public class WriteBuffer extends OutputStream {
     }
 
     @Override
-    public synchronized void write(byte[] b, int off, int len) throws IOException {
+    public void write(byte[] b, int off, int len) throws IOException {
+        synchronized (this) {
+            write0(b, off, len);
+            increase(len);
+        }
+        checkWritable();
+    }
+
+    private void write0(byte[] b, int off, int len) throws IOException {
         if (writeInBuf == null) {
             writeInBuf = bufferPage.allocate(Math.max(chunkSize, len));
         }
@@ -209,7 +252,7 @@ public class WriteBuffer extends OutputStream {
             writeBuffer.put(b, off, remaining);
             flushWriteBuffer(true);
             if (len > remaining) {
-                write(b, off + remaining, len - remaining);
+                write0(b, off + remaining, len - remaining);
             }
         }
     }
@@ -218,18 +261,187 @@ public class WriteBuffer extends OutputStream {
         write(VirtualBuffer.wrap(buffer));
     }
 
-    public synchronized void write(VirtualBuffer virtualBuffer) {
-        if (writeInBuf != null && !virtualBuffer.buffer().isDirect() && writeInBuf.buffer().remaining() > virtualBuffer.buffer().remaining()) {
-            writeInBuf.buffer().put(virtualBuffer.buffer());
-            virtualBuffer.clean();
-        } else {
-            if (writeInBuf != null) {
+    public void write(VirtualBuffer virtualBuffer) {
+        synchronized (this) {
+            int size = virtualBuffer.buffer().remaining();
+            if (writeInBuf != null && !virtualBuffer.buffer().isDirect() && writeInBuf.buffer().remaining() > size) {
+                writeInBuf.buffer().put(virtualBuffer.buffer());
+                virtualBuffer.clean();
+            } else {
+                if (writeInBuf != null) {
+                    flushWriteBuffer(true);
+                }
+                virtualBuffer.buffer().compact();
+                writeInBuf = virtualBuffer;
+            }
+            increase(size);
+            flushWriteBuffer(false);
+        }
+        checkWritable();
+    }
+
+    /**
+     * 输出文件区域, 与普通数据按写入顺序输出, 仅TCP会话支持
+     * 输出完毕或会话关闭时释放文件区域
+     *
+     * @param region 文件区域
+     * @throws IOException writeBuffer已关闭
+     */
+    public void write(FileRegion region) throws IOException {
+        synchronized (this) {
+            if (closed) {
+                region.release();
+                throw new IOException("writeBuffer has closed");
+            }
+            // 先将已缓存的数据加入队列, 保证输出顺序
+            if (writeInBuf != null && writeInBuf.buffer().position() > 0) {
                 flushWriteBuffer(true);
             }
-            virtualBuffer.buffer().compact();
-            writeInBuf = virtualBuffer;
+            long size = region.remaining();
+            offer(VirtualBuffer.wrap(region));
+            increase(size);
+        }
+        checkWritable();
+    }
+
+    /**
+     * 非阻塞地将共享缓冲区的视图加入待输出队列, 不拷贝数据
+     * 队列已满时放弃本次输出, 由调用方决定跳过或断开慢速的对端
+     *
+     * @param shared 共享缓冲区
+     * @return false:队列已满或已关闭
+     */
+    public boolean offer(SharedBuffer shared) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            boolean pending = writeInBuf != null && writeInBuf.buffer().position() > 0;
+            // 需同时容纳已缓存的数据与共享视图
+            if (count + (pending ? 2 : 1) > items.length) {
+                return false;
+            }
+            if (pending) {
+                flushWriteBuffer(true);
+            }
+            offer(shared.retainedView());
+            increase(shared.size());
+        }
+        checkWritable();
+        return true;
+    }
+
+    /**
+     * 非阻塞写入, 超出高水位线或写队列空间不足时立即返回
+     *
+     * @param b   待输出数据
+     * @param off b的起始位点
+     * @param len 从b中输出的数据长度
+     * @return false:不可写, 数据未写入
+     * @throws IOException 如果发生 I/O 错误
+     */
+    public boolean tryWrite(byte[] b, int off, int len) throws IOException {
+        synchronized (this) {
+            if (!writable.get() || closed) {
+                return false;
+            }
+            // 本次写入将加入写队列的内存块数量
+            int room = writeInBuf == null ? 0 : writeInBuf.buffer().remaining();
+            int slots = room > len ? 0 : (room > 0 ? 1 : 0) + (len - room >= chunkSize ? 1 : 0);
+            if (count + slots > items.length) {
+                return false;
+            }
+            write0(b, off, len);
+            increase(len);
+        }
+        checkWritable();
+        return true;
+    }
+
+    /**
+     * @param b 待输出数据
+     * @return false:不可写, 数据未写入
+     * @throws IOException 如果发生 I/O 错误
+     * @see #tryWrite(byte[], int, int)
+     */
+    public boolean tryWrite(byte[] b) throws IOException {
+        return tryWrite(b, 0, b.length);
+    }
+
+    /**
+     * 设置高低水位线
+     * 可写状态变更回调在数据加入写队列之后触发, 触发时不持有WriteBuffer的锁, 回调中可再次写入
+     *
+     * @param lowWatermark        低水位线
+     * @param highWatermark       高水位线
+     * @param writabilityListener 可写状态变更回调
+     */
+    public void watermark(int lowWatermark, int highWatermark, Runnable writabilityListener) {
+        if (lowWatermark < 0 || highWatermark < lowWatermark) {
+            throw new IllegalArgumentException("invalid watermark, low: " + lowWatermark + ", high: " + highWatermark);
+        }
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.writabilityListener = writabilityListener;
+    }
+
+    /**
+     * 是否可写
+     * 设置水位线时以待输出数据量判断, 否则以写队列是否已满判断
+     *
+     * @return true:可写,false:不可写
+     */
+    public boolean isWritable() {
+        return highWatermark > 0 ? writable.get() : count < items.length;
+    }
+
+    /**
+     * 数据已输出至网络, 更新待输出数据量
+     *
+     * @param size 输出的字节数
+     */
+    public void written(long size) {
+        if (highWatermark > 0) {
+            pendingBytes.addAndGet(-size);
+            checkWritable();
+        }
+    }
+
+    /**
+     * 累加待输出数据量, 在持有锁时调用, 可写状态由调用方释放锁后通过{@link #checkWritable()}更新
+     *
+     * @param size 加入写队列的字节数
+     */
+    private void increase(long size) {
+        if (highWatermark > 0) {
+            pendingBytes.addAndGet(size);
+        }
+    }
+
+    /**
+     * 根据待输出数据量切换可写状态, 状态切换后再次检查, 避免并发增减时状态停留在错误的值上
+     * 不得在持有锁时调用, 以免回调在锁内执行
+     */
+    private void checkWritable() {
+        if (highWatermark <= 0) {
+            return;
+        }
+        while (true) {
+            long pending = pendingBytes.get();
+            if (pending > highWatermark && writable.compareAndSet(true, false)) {
+                fireWritabilityChanged();
+            } else if (pending < lowWatermark && writable.compareAndSet(false, true)) {
+                fireWritabilityChanged();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void fireWritabilityChanged() {
+        if (writabilityListener != null) {
+            writabilityListener.run();
         }
-        flushWriteBuffer(false);
     }
 
     /**
@@ -304,6 +516,15 @@ public class WriteBuffer extends OutputStream {
         return count == 0 && (writeInBuf == null || writeInBuf.buffer().position() == 0);
     }
 
+    /**
+     * 获取写缓冲中排队等待输出的内存块数量
+     *
+     * @return 排队的内存块数量
+     */
+    public int size() {
+        return count;
+    }
+
     public VirtualBuffer pollItem() {
         if (count == 0) {
             return null;
@@ -321,6 +542,21 @@ public class WriteBuffer extends OutputStream {
         }
     }
 
+    /**
+     * 批量取出队列头部连续的内存块, 遇到文件区域时停止
+     *
+     * @param dst    存放取出的内存块
+     * @param offset dst的起始位置
+     * @return 取出的数量
+     */
+    public synchronized int pollItems(VirtualBuffer[] dst, int offset) {
+        int size = 0;
+        while (count > 0 && offset + size < dst.length && items[takeIndex].region() == null) {
+            dst[offset + size++] = pollItem();
+        }
+        return size;
+    }
+
     /**
      * 获取并移除当前缓冲队列中头部的VirtualBuffer
      *
@@ -26,6 +26,7 @@
 package org.miaixz.bus.socket.channel;
 
 import org.miaixz.bus.socket.buffers.BufferArray;
+import org.miaixz.bus.socket.buffers.FileRegion;
 import org.miaixz.bus.socket.handler.FutureCompletionHandler;
 
 import java.io.IOException;
@@ -80,6 +81,10 @@ public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketCh
      * 存放待输出数据的缓冲区集合
      */
     private BufferArray gatheringWriteBuffer;
+    /**
+     * 待输出的文件区域
+     */
+    private FileRegion writeRegion;
     /**
      * read 回调事件处理器
      */
@@ -280,10 +285,23 @@ public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketCh
 
     @Override
     public <A> void write(ByteBuffer src, long timeout, TimeUnit unit, A attachment, CompletionHandler<Integer, ? super A> handler) {
-        write0(src, null, timeout, unit, attachment, handler);
+        write0(src, null, null, timeout, unit, attachment, handler);
+    }
+
+    /**
+     * 通过{@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}输出文件区域,
+     * 数据由内核直接写入socket, 单次回调可能只输出部分数据
+     *
+     * @param region     文件区域
+     * @param attachment 附件
+     * @param handler    回调
+     * @param <A>        附件类型
+     */
+    public <A> void write(FileRegion region, A attachment, CompletionHandler<Integer, ? super A> handler) {
+        write0(null, null, region, 0, TimeUnit.MILLISECONDS, attachment, handler);
     }
 
-    private <V extends Number, A> void write0(ByteBuffer writeBuffer, BufferArray gathering, long timeout, TimeUnit unit, A attachment, CompletionHandler<V, ? super A> handler) {
+    private <V extends Number, A> void write0(ByteBuffer writeBuffer, BufferArray gathering, FileRegion region, long timeout, TimeUnit unit, A attachment, CompletionHandler<V, ? super A> handler) {
         if (writePending) {
             throw new WritePendingException();
         }
@@ -291,6 +309,7 @@ public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketCh
         writePending = true;
         this.writeBuffer = writeBuffer;
         this.gatheringWriteBuffer = gathering;
+        this.writeRegion = region;
         this.writeAttachment = attachment;
         if (timeout > 0) {
             writeFuture = new FutureCompletionHandler<>((CompletionHandler<Number, Object>) handler, writeAttachment);
@@ -306,13 +325,13 @@ public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketCh
     public Future<Integer> write(ByteBuffer src) {
         FutureCompletionHandler<Integer, Object> writeFuture = new FutureCompletionHandler<>();
         this.writeFuture = writeFuture;
-        write0(src, null, 0, TimeUnit.MILLISECONDS, null, writeFuture);
+        write0(src, null, null, 0, TimeUnit.MILLISECONDS, null, writeFuture);
         return writeFuture;
     }
 
     @Override
     public <A> void write(ByteBuffer[] srcs, int offset, int length, long timeout, TimeUnit unit, A attachment, CompletionHandler<Long, ? super A> handler) {
-        write0(null, new BufferArray(srcs, offset, length), timeout, unit, attachment, handler);
+        write0(null, new BufferArray(srcs, offset, length), null, timeout, unit, attachment, handler);
     }
 
     @Override
@@ -472,11 +491,16 @@ public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketCh
             } else if (readWorker.getWorkerThread() != Thread.currentThread()) {
                 invoker = ++writeInvoker;
             }
-            int writeSize = 0;
+            long writeSize = 0;
             boolean hasRemain = true;
+            // 聚合写按规范以Long类型回调
+            boolean gathering = gatheringWriteBuffer != null;
             if (invoker < EnhanceAsynchronousChannelGroup.MAX_INVOKER) {
-                if (gatheringWriteBuffer != null) {
-                    writeSize = (int) channel.write(gatheringWriteBuffer.getBuffers(), gatheringWriteBuffer.getOffset(), gatheringWriteBuffer.getLength());
+                if (writeRegion != null) {
+                    writeSize = writeRegion.transferTo(channel);
+                    hasRemain = writeRegion.remaining() > 0;
+                } else if (gatheringWriteBuffer != null) {
+                    writeSize = channel.write(gatheringWriteBuffer.getBuffers(), gatheringWriteBuffer.getOffset(), gatheringWriteBuffer.getLength());
                     hasRemain = hasRemaining(gatheringWriteBuffer);
                 } else {
                     writeSize = channel.write(writeBuffer);
@@ -504,7 +528,7 @@ public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketCh
                 CompletionHandler<Number, Object> completionHandler = writeCompletionHandler;
                 Object attach = writeAttachment;
                 resetWrite();
-                completionHandler.completed(writeSize, attach);
+                completionHandler.completed(gathering ? (Number) writeSize : (Number) (int) writeSize, attach);
             } else if (writeSelectionKey == null) {
                 writeWorker.addRegister(selector -> {
                     try {
@@ -546,6 +570,7 @@ public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketCh
         writeCompletionHandler = null;
         writeBuffer = null;
         gatheringWriteBuffer = null;
+        writeRegion = null;
     }
 
     @Override
@@ -0,0 +1,255 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.convert;
+
+import org.miaixz.bus.socket.buffers.BufferPage;
+import org.miaixz.bus.socket.buffers.VirtualBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于长度字段的解码器
+ * 帧长度 = 长度字段值 + lengthAdjustment + lengthFieldOffset + lengthFieldLength, 即解码结果包含消息头。
+ * 超出读缓冲区的消息按块从内存页中申请虚拟Buffer累积, 无需配置超大的读缓冲区
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class LengthFieldFrameDecoder implements SocketDecoder {
+
+    /**
+     * 默认的单个内存块最大容量
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final BufferPage bufferPage;
+    /**
+     * 长度字段的偏移量
+     */
+    private final int lengthFieldOffset;
+    /**
+     * 长度字段占用的字节数: 1,2,3,4,8
+     */
+    private final int lengthFieldLength;
+    /**
+     * 长度字段的字节序
+     */
+    private final ByteOrder byteOrder;
+    /**
+     * 帧长度修正值
+     */
+    private final int lengthAdjustment;
+    /**
+     * 允许的最大帧长度
+     */
+    private final int maxFrameLength;
+    /**
+     * 单个内存块最大容量
+     */
+    private final int chunkSize;
+    /**
+     * 跨读周期累积的消息头
+     */
+    private final byte[] header;
+    /**
+     * 存储已解析的数据
+     */
+    private final List<VirtualBuffer> chunks = new ArrayList<>();
+    private int headerRead;
+    /**
+     * 当前帧的总长度, -1表示消息头尚未读取完整
+     */
+    private int frameLength = -1;
+    /**
+     * 当前帧已接收的字节数
+     */
+    private int received;
+    /**
+     * 是否解析完成
+     */
+    private boolean finishRead;
+
+    public LengthFieldFrameDecoder(BufferPage bufferPage, int lengthFieldOffset, int lengthFieldLength, ByteOrder byteOrder, int lengthAdjustment, int maxFrameLength) {
+        this(bufferPage, lengthFieldOffset, lengthFieldLength, byteOrder, lengthAdjustment, maxFrameLength, DEFAULT_CHUNK_SIZE);
+    }
+
+    public LengthFieldFrameDecoder(BufferPage bufferPage, int lengthFieldOffset, int lengthFieldLength, ByteOrder byteOrder, int lengthAdjustment, int maxFrameLength, int chunkSize) {
+        if (lengthFieldOffset < 0) {
+            throw new IllegalArgumentException("lengthFieldOffset must be a non-negative integer: " + lengthFieldOffset);
+        }
+        if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 3 && lengthFieldLength != 4 && lengthFieldLength != 8) {
+            throw new IllegalArgumentException("lengthFieldLength must be either 1, 2, 3, 4, or 8: " + lengthFieldLength);
+        }
+        if (maxFrameLength <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("maxFrameLength and chunkSize must be positive integers");
+        }
+        this.bufferPage = bufferPage;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.byteOrder = byteOrder;
+        this.lengthAdjustment = lengthAdjustment;
+        this.maxFrameLength = maxFrameLength;
+        this.chunkSize = chunkSize;
+        this.header = new byte[lengthFieldOffset + lengthFieldLength];
+    }
+
+    /**
+     * 解析buffer当前位置起的帧长度, 不改变buffer的读写位置
+     *
+     * @param buffer 待解析数据
+     * @return 帧的总长度, 消息头不完整时返回-1
+     */
+    public int frameLength(ByteBuffer buffer) {
+        if (buffer.remaining() < header.length) {
+            return -1;
+        }
+        int index = buffer.position() + lengthFieldOffset;
+        long length = 0;
+        for (int i = 0; i < lengthFieldLength; i++) {
+            int offset = byteOrder == ByteOrder.BIG_ENDIAN ? i : lengthFieldLength - 1 - i;
+            length = (length << 8) | (buffer.get(index + offset) & 0xFF);
+        }
+        length += lengthAdjustment + header.length;
+        if (length < header.length || length > maxFrameLength) {
+            throw new RuntimeException("invalid frame length: " + length + ", maxFrameLength: " + maxFrameLength);
+        }
+        return (int) length;
+    }
+
+    @Override
+    public boolean decode(ByteBuffer byteBuffer) {
+        if (finishRead) {
+            throw new RuntimeException("frame has finish read");
+        }
+        if (frameLength < 0) {
+            int size = Math.min(header.length - headerRead, byteBuffer.remaining());
+            byteBuffer.get(header, headerRead, size);
+            headerRead += size;
+            if (headerRead < header.length) {
+                return false;
+            }
+            ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+            frameLength = frameLength(headerBuffer);
+            append(headerBuffer);
+        }
+        int limit = byteBuffer.limit();
+        if (byteBuffer.remaining() > frameLength - received) {
+            byteBuffer.limit(byteBuffer.position() + frameLength - received);
+        }
+        append(byteBuffer);
+        byteBuffer.limit(limit);
+        if (received < frameLength) {
+            return false;
+        }
+        for (VirtualBuffer chunk : chunks) {
+            chunk.buffer().flip();
+        }
+        finishRead = true;
+        return true;
+    }
+
+    /**
+     * 将数据写入内存块, 按剩余帧长度申请新的内存块
+     */
+    private void append(ByteBuffer src) {
+        while (src.hasRemaining()) {
+            VirtualBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || !chunk.buffer().hasRemaining()) {
+                chunk = bufferPage.allocate(Math.min(chunkSize, frameLength - received));
+                // 内存页复用的Buffer容量可能大于申请值, 限定为本帧所需的长度
+                chunk.buffer().limit(Math.min(chunk.buffer().capacity(), frameLength - received));
+                chunks.add(chunk);
+            }
+            ByteBuffer dst = chunk.buffer();
+            int size = Math.min(dst.remaining(), src.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + size);
+            dst.put(src);
+            src.limit(limit);
+            received += size;
+        }
+    }
+
+    /**
+     * 获取本次解析到的完整数据, 帧跨越多个内存块时需合并拷贝
+     *
+     * @return 只读的帧数据
+     * @see #getBuffers()
+     */
+    @Override
+    public ByteBuffer getBuffer() {
+        if (chunks.size() == 1) {
+            return chunks.get(0).buffer().asReadOnlyBuffer();
+        }
+        ByteBuffer data = ByteBuffer.allocate(frameLength);
+        for (VirtualBuffer chunk : chunks) {
+            data.put(chunk.buffer().duplicate());
+        }
+        data.flip();
+        return data.asReadOnlyBuffer();
+    }
+
+    /**
+     * 获取本次解析到的完整数据, 各内存块的只读视图, 不产生拷贝
+     * 视图在{@link #reset()}之前有效
+     *
+     * @return 只读的帧数据
+     */
+    public ByteBuffer[] getBuffers() {
+        ByteBuffer[] buffers = new ByteBuffer[chunks.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = chunks.get(i).buffer().asReadOnlyBuffer();
+        }
+        return buffers;
+    }
+
+    /**
+     * 是否正在累积某个帧的数据
+     *
+     * @return true:是,false:否
+     */
+    public boolean isDecoding() {
+        return headerRead > 0;
+    }
+
+    /**
+     * 重置解码器, 释放已申请的内存块
+     */
+    public void reset() {
+        for (VirtualBuffer chunk : chunks) {
+            chunk.clean();
+        }
+        chunks.clear();
+        headerRead = 0;
+        frameLength = -1;
+        received = 0;
+        finishRead = false;
+    }
+
+}
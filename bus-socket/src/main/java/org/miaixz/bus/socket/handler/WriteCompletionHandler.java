@@ -39,6 +39,25 @@ import java.nio.channels.CompletionHandler;
  */
 public class WriteCompletionHandler implements CompletionHandler<Integer, TcpAioSession> {
 
+    /**
+     * 聚合写(vectored write)回调
+     */
+    private final CompletionHandler<Long, TcpAioSession> gatheringHandler = new CompletionHandler<>() {
+        @Override
+        public void completed(Long result, TcpAioSession aioSession) {
+            WriteCompletionHandler.this.completed(result.intValue(), aioSession);
+        }
+
+        @Override
+        public void failed(Throwable exc, TcpAioSession aioSession) {
+            WriteCompletionHandler.this.failed(exc, aioSession);
+        }
+    };
+
+    public CompletionHandler<Long, TcpAioSession> gathering() {
+        return gatheringHandler;
+    }
+
     @Override
     public void completed(final Integer result, final TcpAioSession aioSession) {
         try {
@@ -46,6 +65,7 @@ public class WriteCompletionHandler implements CompletionHandler<Integer, TcpAio
             if (monitor != null) {
                 monitor.afterWrite(aioSession, result);
             }
+            aioSession.writeBuffer().written(result);
             aioSession.writeCompleted();
         } catch (Exception e) {
             failed(e, aioSession);
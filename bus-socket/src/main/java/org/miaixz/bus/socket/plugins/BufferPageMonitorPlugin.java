@@ -81,9 +81,15 @@ public class BufferPageMonitorPlugin<T> extends AbstractPlugin<T> {
                     field.setAccessible(true);
                     BufferPage[] pages = (BufferPage[]) field.get(pagePool);
                     String logger = Normal.EMPTY;
+                    long hits = 0, misses = 0, crossThreadFrees = 0;
                     for (BufferPage page : pages) {
                         logger += "\r\n" + page.toString();
+                        hits += page.getCacheHits();
+                        misses += page.getCacheMisses();
+                        crossThreadFrees += page.getCrossThreadFrees();
                     }
+                    long total = hits + misses;
+                    logger += "\r\nthread cache hit rate: " + (total == 0 ? 0 : hits * 100 / total) + "%, cross-thread frees: " + crossThreadFrees;
                     Logger.info(logger);
                 } catch (Exception e) {
                     Logger.error("", e);
@@ -27,25 +27,21 @@ package org.miaixz.bus.socket.plugins;
 
 import org.miaixz.bus.logger.Logger;
 import org.miaixz.bus.socket.AioSession;
-import org.miaixz.bus.socket.QuickTimer;
 import org.miaixz.bus.socket.SocketStatus;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 心跳插件
+ * 基于{@link IdleStatePlugin}的读空闲检测, 读空闲时发送心跳, 超时未收到消息时回调{@link TimeoutCallback}
  *
  * @author Kimi Liu
  * @since Java 17+
  */
-public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
+public abstract class HeartPlugin<T> extends IdleStatePlugin<T> {
 
     private static final TimeoutCallback DEFAULT_TIMEOUT_CALLBACK = (session, lastTime) -> session.close(true);
-    private Map<AioSession, Long> sessionMap = new HashMap<>();
     /**
      * 心跳频率
      */
@@ -88,6 +84,7 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
      * @param timeout   消息超时时间
      */
     public HeartPlugin(int heartRate, int timeout, TimeUnit timeUnit, TimeoutCallback timeoutCallback) {
+        super(null, heartRate, 0, 0, timeUnit);
         if (timeout > 0 && heartRate >= timeout) {
             throw new IllegalArgumentException("heartRate must little then timeout");
         }
@@ -98,7 +95,6 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
 
     @Override
     public final boolean preProcess(AioSession session, T t) {
-        sessionMap.put(session, System.currentTimeMillis());
         // 是否心跳响应消息
         if (isHeartMessage(session, t)) {
             // 延长心跳监测时间
@@ -109,18 +105,29 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
 
     @Override
     public final void stateEvent(SocketStatus socketStatus, AioSession session, Throwable throwable) {
-        switch (socketStatus) {
-            case NEW_SESSION:
-                sessionMap.put(session, System.currentTimeMillis());
-                registerHeart(session, heartRate);
-                // 注册心跳监测
-                break;
-            case SESSION_CLOSED:
-                // 移除心跳监测
-                sessionMap.remove(session);
-                break;
-            default:
-                break;
+        if (socketStatus == SocketStatus.NEW_SESSION && heartRate <= 0) {
+            Logger.info("session:{} 因心跳超时时间为:{},终止启动心跳监测任务", session, heartRate);
+        }
+        // 注册/移除心跳监测
+        super.stateEvent(socketStatus, session, throwable);
+    }
+
+    @Override
+    protected final void onIdle(AioSession session, SocketStatus status, long lastActiveTime) {
+        long current = System.currentTimeMillis();
+        // 超时未收到消息，关闭连接
+        if (timeout > 0 && (current - lastActiveTime) > timeout) {
+            timeoutCallback.callback(session, lastActiveTime);
+        }
+        // 超时未收到消息,尝试发送心跳消息
+        else {
+            try {
+                sendHeartRequest(session);
+                session.writeBuffer().flush();
+            } catch (IOException e) {
+                Logger.error("heart exception,will close session:{}", session, e);
+                session.close(true);
+            }
         }
     }
 
@@ -142,46 +149,6 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
      */
     public abstract boolean isHeartMessage(AioSession session, T msg);
 
-    private void registerHeart(final AioSession session, final long heartRate) {
-        if (heartRate <= 0) {
-            Logger.info("session:{} 因心跳超时时间为:{},终止启动心跳监测任务", session, heartRate);
-            return;
-        }
-        Logger.debug("session:{}注册心跳任务,超时时间:{}", session, heartRate);
-        QuickTimer.SCHEDULED_EXECUTOR_SERVICE.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if (session.isInvalid()) {
-                    sessionMap.remove(session);
-                    Logger.info("session:{} 已失效，移除心跳任务", session);
-                    return;
-                }
-                Long lastTime = sessionMap.get(session);
-                if (null == lastTime) {
-                    Logger.warn("session:{} timeout is null", session);
-                    lastTime = System.currentTimeMillis();
-                    sessionMap.put(session, lastTime);
-                }
-                long current = System.currentTimeMillis();
-                // 超时未收到消息，关闭连接
-                if (timeout > 0 && (current - lastTime) > timeout) {
-                    timeoutCallback.callback(session, lastTime);
-                }
-                // 超时未收到消息,尝试发送心跳消息
-                else if (current - lastTime > heartRate) {
-                    try {
-                        sendHeartRequest(session);
-                        session.writeBuffer().flush();
-                    } catch (IOException e) {
-                        Logger.error("heart exception,will close session:{}", session, e);
-                        session.close(true);
-                    }
-                }
-                registerHeart(session, heartRate);
-            }
-        }, heartRate, TimeUnit.MILLISECONDS);
-    }
-
     public interface TimeoutCallback {
         void callback(AioSession session, long lastTime);
     }
@@ -0,0 +1,74 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.plugins;
+
+import org.miaixz.bus.logger.Logger;
+import org.miaixz.bus.socket.AioSession;
+import org.miaixz.bus.socket.SocketStatus;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 空闲关闭插件
+ * 收到{@link IdleStatePlugin}分发的空闲事件后关闭会话
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class IdleClosePlugin<T> extends AbstractPlugin<T> {
+
+    private final Set<SocketStatus> closeOn;
+
+    /**
+     * 读写空闲时关闭会话
+     */
+    public IdleClosePlugin() {
+        this(SocketStatus.ALL_IDLE);
+    }
+
+    /**
+     * @param closeOn 触发关闭的空闲类型
+     */
+    public IdleClosePlugin(SocketStatus... closeOn) {
+        this.closeOn = EnumSet.noneOf(SocketStatus.class);
+        for (SocketStatus status : closeOn) {
+            if (status != SocketStatus.READ_IDLE && status != SocketStatus.WRITE_IDLE && status != SocketStatus.ALL_IDLE) {
+                throw new IllegalArgumentException("not an idle status: " + status);
+            }
+            this.closeOn.add(status);
+        }
+    }
+
+    @Override
+    public void stateEvent(SocketStatus socketStatus, AioSession session, Throwable throwable) {
+        if (closeOn.contains(socketStatus)) {
+            Logger.info("session:{} {}, will be closed", session.getSessionID(), socketStatus);
+            session.close(true);
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.plugins;
+
+import org.miaixz.bus.socket.AioSession;
+import org.miaixz.bus.socket.HashedWheelTimer;
+import org.miaixz.bus.socket.SocketStatus;
+import org.miaixz.bus.socket.process.MessageProcessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 空闲检测插件
+ * <p>
+ * 每个会话仅在时间轮中保留一个检测任务, 读写时只更新会话上的时间戳;
+ * 触发空闲时通过{@link MessageProcessor#stateEvent(AioSession, SocketStatus, Throwable)}
+ * 分发{@link SocketStatus#READ_IDLE}、{@link SocketStatus#WRITE_IDLE}、{@link SocketStatus#ALL_IDLE}事件,
+ * 处理器及其它插件(如{@link IdleClosePlugin})均可响应; 会话持续空闲时每隔一个周期重复触发
+ * </p>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class IdleStatePlugin<T> extends AbstractPlugin<T> {
+
+    /**
+     * 各会话的检测任务, 仅在会话建立及关闭时访问
+     */
+    private final Map<AioSession, IdleState> states = new ConcurrentHashMap<>();
+
+    private final MessageProcessor<T> processor;
+
+    private final HashedWheelTimer timer;
+    /**
+     * 读空闲时间(ms), 不大于0表示不检测
+     */
+    private final long readIdleTime;
+    /**
+     * 写空闲时间(ms), 不大于0表示不检测
+     */
+    private final long writeIdleTime;
+    /**
+     * 读写空闲时间(ms), 不大于0表示不检测
+     */
+    private final long allIdleTime;
+
+    /**
+     * 空闲检测插件
+     *
+     * @param processor     空闲事件的接收者
+     * @param readIdleTime  读空闲时间
+     * @param writeIdleTime 写空闲时间
+     * @param allIdleTime   读写空闲时间
+     * @param unit          时间单位
+     */
+    public IdleStatePlugin(MessageProcessor<T> processor, long readIdleTime, long writeIdleTime, long allIdleTime, TimeUnit unit) {
+        this(processor, readIdleTime, writeIdleTime, allIdleTime, unit, HashedWheelTimer.DEFAULT_TIMER);
+    }
+
+    /**
+     * 空闲检测插件
+     *
+     * @param processor     空闲事件的接收者, 为null时仅回调{@link #onIdle(AioSession, SocketStatus, long)}
+     * @param readIdleTime  读空闲时间
+     * @param writeIdleTime 写空闲时间
+     * @param allIdleTime   读写空闲时间
+     * @param unit          时间单位
+     * @param timer         时间轮
+     */
+    public IdleStatePlugin(MessageProcessor<T> processor, long readIdleTime, long writeIdleTime, long allIdleTime,
+                           TimeUnit unit, HashedWheelTimer timer) {
+        this.processor = processor;
+        this.readIdleTime = unit.toMillis(readIdleTime);
+        this.writeIdleTime = unit.toMillis(writeIdleTime);
+        this.allIdleTime = unit.toMillis(allIdleTime);
+        this.timer = timer;
+    }
+
+    @Override
+    public void stateEvent(SocketStatus socketStatus, AioSession session, Throwable throwable) {
+        switch (socketStatus) {
+            case NEW_SESSION:
+                if (readIdleTime > 0 || writeIdleTime > 0 || allIdleTime > 0) {
+                    long now = System.currentTimeMillis();
+                    session.setLastReadTime(now);
+                    session.setLastWriteTime(now);
+                    IdleState state = new IdleState(session);
+                    states.put(session, state);
+                    schedule(state, nextDelay());
+                }
+                break;
+            case SESSION_CLOSED:
+                IdleState state = states.remove(session);
+                if (null != state && null != state.timeout) {
+                    state.timeout.cancel();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void afterRead(AioSession session, int readSize) {
+        session.setLastReadTime(System.currentTimeMillis());
+    }
+
+    @Override
+    public void afterWrite(AioSession session, int writeSize) {
+        session.setLastWriteTime(System.currentTimeMillis());
+    }
+
+    /**
+     * 最近一次读取数据的时间
+     *
+     * @param session 会话
+     * @return 时间戳
+     */
+    public long getLastReadTime(AioSession session) {
+        return session.getLastReadTime();
+    }
+
+    /**
+     * 最近一次输出数据的时间
+     *
+     * @param session 会话
+     * @return 时间戳
+     */
+    public long getLastWriteTime(AioSession session) {
+        return session.getLastWriteTime();
+    }
+
+    /**
+     * 会话进入空闲状态, 在时间轮线程中执行, 不应阻塞
+     * 默认将事件分发给处理器
+     *
+     * @param session        会话
+     * @param status         空闲类型
+     * @param lastActiveTime 该空闲类型对应的最近活跃时间
+     */
+    protected void onIdle(AioSession session, SocketStatus status, long lastActiveTime) {
+        if (null != processor) {
+            processor.stateEvent(session, status, null);
+        }
+    }
+
+    private void schedule(IdleState state, long delay) {
+        state.timeout = timer.schedule(() -> check(state), delay);
+    }
+
+    private void check(IdleState state) {
+        if (state.session.isInvalid()) {
+            states.remove(state.session, state);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long nextDelay = Long.MAX_VALUE;
+        if (readIdleTime > 0) {
+            long lastTime = state.session.getLastReadTime();
+            long delay = readIdleTime - (now - Math.max(lastTime, state.readEventTime));
+            if (delay <= 0) {
+                state.readEventTime = now;
+                onIdle(state.session, SocketStatus.READ_IDLE, lastTime);
+                delay = readIdleTime;
+            }
+            nextDelay = Math.min(nextDelay, delay);
+        }
+        if (writeIdleTime > 0) {
+            long lastTime = state.session.getLastWriteTime();
+            long delay = writeIdleTime - (now - Math.max(lastTime, state.writeEventTime));
+            if (delay <= 0) {
+                state.writeEventTime = now;
+                onIdle(state.session, SocketStatus.WRITE_IDLE, lastTime);
+                delay = writeIdleTime;
+            }
+            nextDelay = Math.min(nextDelay, delay);
+        }
+        if (allIdleTime > 0) {
+            long lastTime = Math.max(state.session.getLastReadTime(), state.session.getLastWriteTime());
+            long delay = allIdleTime - (now - Math.max(lastTime, state.allEventTime));
+            if (delay <= 0) {
+                state.allEventTime = now;
+                onIdle(state.session, SocketStatus.ALL_IDLE, lastTime);
+                delay = allIdleTime;
+            }
+            nextDelay = Math.min(nextDelay, delay);
+        }
+        // 回调中可能已关闭会话
+        if (!state.session.isInvalid() && states.get(state.session) == state) {
+            schedule(state, nextDelay);
+        }
+    }
+
+    private long nextDelay() {
+        long delay = Long.MAX_VALUE;
+        if (readIdleTime > 0) {
+            delay = readIdleTime;
+        }
+        if (writeIdleTime > 0) {
+            delay = Math.min(delay, writeIdleTime);
+        }
+        if (allIdleTime > 0) {
+            delay = Math.min(delay, allIdleTime);
+        }
+        return delay;
+    }
+
+    /**
+     * 会话空闲检测任务, 读写时间戳保存在会话上, 事件时间仅由时间轮线程访问
+     */
+    private static final class IdleState {
+
+        private final AioSession session;
+
+        private long readEventTime;
+
+        private long writeEventTime;
+
+        private long allEventTime;
+
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        private IdleState(AioSession session) {
+            this.session = session;
+        }
+    }
+
+}
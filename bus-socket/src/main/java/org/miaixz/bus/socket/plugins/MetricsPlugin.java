@@ -0,0 +1,451 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.plugins;
+
+import org.miaixz.bus.core.lang.Charset;
+import org.miaixz.bus.logger.Logger;
+import org.miaixz.bus.socket.AioQuickServer;
+import org.miaixz.bus.socket.AioSession;
+import org.miaixz.bus.socket.Protocol;
+import org.miaixz.bus.socket.SocketStatus;
+import org.miaixz.bus.socket.process.MessageProcessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 吞吐量及耗时统计插件
+ * <p>
+ * 以无锁计数器及{@link LatencyHistogram}统计解码耗时、处理耗时、写缓冲排队深度及写出耗时,
+ * 数据同时汇总至服务级及会话分组级, 会话级仅保留计数器; 可通过{@link #render()}拉取,
+ * 或通过{@link #export(int)}在独立端口上以纯文本输出
+ * </p>
+ * <p>
+ * 解码耗时需使用{@link #protocol(Protocol)}包装原协议后方可采集
+ * </p>
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public final class MetricsPlugin<T> extends AbstractPlugin<T> {
+
+    /**
+     * 会话状态
+     */
+    private final Map<AioSession, SessionMetrics> sessions = new ConcurrentHashMap<>();
+    /**
+     * 分组统计数据
+     */
+    private final Map<String, Metrics> groups = new ConcurrentHashMap<>();
+    /**
+     * 服务级统计数据
+     */
+    private final Metrics server = new Metrics();
+    /**
+     * 会话分组规则, 于会话建立时计算
+     */
+    private final Function<AioSession, String> grouping;
+    /**
+     * 文本输出服务
+     */
+    private AioQuickServer endpoint;
+
+    public MetricsPlugin() {
+        this(null);
+    }
+
+    /**
+     * @param grouping 会话分组规则, 返回null表示该会话不参与分组统计
+     */
+    public MetricsPlugin(Function<AioSession, String> grouping) {
+        this.grouping = grouping;
+    }
+
+    /**
+     * 包装协议以统计解码耗时, 仅统计成功解码出消息的调用
+     *
+     * @param protocol 原协议
+     * @return 包装后的协议
+     */
+    public Protocol<T> protocol(Protocol<T> protocol) {
+        return (readBuffer, session) -> {
+            long start = System.nanoTime();
+            T t = protocol.decode(readBuffer, session);
+            if (t != null) {
+                SessionMetrics state = state(session);
+                if (state != null) {
+                    state.record(System.nanoTime() - start, Metrics::decodeTime);
+                }
+            }
+            return t;
+        };
+    }
+
+    @Override
+    public boolean preProcess(AioSession session, T t) {
+        SessionMetrics state = state(session);
+        if (state != null) {
+            state.processStart = System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterProcess(AioSession session, T t) {
+        SessionMetrics state = state(session);
+        if (state != null && state.processStart != 0) {
+            state.messages.increment();
+            state.forEach(metrics -> metrics.messages.increment());
+            state.record(System.nanoTime() - state.processStart, Metrics::processTime);
+            state.processStart = 0;
+        }
+    }
+
+    @Override
+    public void stateEvent(SocketStatus socketStatus, AioSession session, Throwable throwable) {
+        switch (socketStatus) {
+            case NEW_SESSION:
+                state(session);
+                break;
+            case PROCESS_EXCEPTION:
+            case DECODE_EXCEPTION:
+                SessionMetrics state = state(session);
+                if (state != null) {
+                    state.forEach(metrics -> metrics.failures.increment());
+                }
+                break;
+            case SESSION_CLOSED:
+                SessionMetrics closed = sessions.remove(session);
+                if (closed != null) {
+                    closed.forEach(metrics -> metrics.online.decrement());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void afterRead(AioSession session, int readSize) {
+        SessionMetrics state = state(session);
+        if (state != null && readSize > 0) {
+            state.inBytes.add(readSize);
+            state.forEach(metrics -> metrics.inBytes.add(readSize));
+        }
+    }
+
+    @Override
+    public void beforeWrite(AioSession session) {
+        SessionMetrics state = state(session);
+        if (state != null) {
+            state.writeStart = System.nanoTime();
+            state.record(session.writeBuffer().size(), Metrics::writeQueueDepth);
+        }
+    }
+
+    @Override
+    public void afterWrite(AioSession session, int writeSize) {
+        SessionMetrics state = state(session);
+        if (state == null) {
+            return;
+        }
+        if (writeSize > 0) {
+            state.outBytes.add(writeSize);
+            state.forEach(metrics -> metrics.outBytes.add(writeSize));
+        }
+        long start = state.writeStart;
+        if (start != 0) {
+            state.record(System.nanoTime() - start, Metrics::flushTime);
+        }
+    }
+
+    /**
+     * 获取会话对应的统计状态, 已失效的会话返回null
+     */
+    private SessionMetrics state(AioSession session) {
+        SessionMetrics state = sessions.get(session);
+        if (state != null || session.isInvalid()) {
+            return state;
+        }
+        return sessions.computeIfAbsent(session, key -> {
+            String group = grouping == null ? null : grouping.apply(key);
+            SessionMetrics metrics = new SessionMetrics(server, group == null ? null : groups.computeIfAbsent(group, g -> new Metrics()));
+            metrics.forEach(m -> m.online.increment());
+            return metrics;
+        });
+    }
+
+    /**
+     * @return 服务级统计数据
+     */
+    public Metrics server() {
+        return server;
+    }
+
+    /**
+     * @param group 分组名称
+     * @return 分组统计数据, 分组不存在时返回null
+     */
+    public Metrics group(String group) {
+        return groups.get(group);
+    }
+
+    /**
+     * @return 全部分组统计数据
+     */
+    public Map<String, Metrics> groups() {
+        return Collections.unmodifiableMap(groups);
+    }
+
+    /**
+     * @param session 会话
+     * @return 会话级统计数据, 会话未被统计或已关闭时返回null
+     */
+    public SessionMetrics session(AioSession session) {
+        return sessions.get(session);
+    }
+
+    /**
+     * 以纯文本格式输出全部统计数据, 每行一项, 耗时单位为纳秒
+     *
+     * @return 统计文本
+     */
+    public String render() {
+        StringBuilder builder = new StringBuilder(1024);
+        server.render(builder, "server");
+        new TreeMap<>(groups).forEach((name, metrics) -> metrics.render(builder, "group." + name));
+        return builder.toString();
+    }
+
+    /**
+     * 在独立端口上启动统计数据输出服务, 任意请求(包括HTTP GET)均以纯文本形式返回{@link #render()}的结果后关闭连接
+     *
+     * @param port 端口
+     * @return 输出服务
+     * @throws IOException 启动失败
+     */
+    public synchronized AioQuickServer export(int port) throws IOException {
+        if (endpoint != null) {
+            throw new IllegalStateException("metrics endpoint is already started");
+        }
+        Protocol<Boolean> protocol = (readBuffer, session) -> {
+            readBuffer.position(readBuffer.limit());
+            return Boolean.TRUE;
+        };
+        MessageProcessor<Boolean> processor = (session, request) -> {
+            byte[] body = render().getBytes(Charset.UTF_8);
+            String head = "HTTP/1.0 200 OK\r\nContent-Type: text/plain; charset=utf-8\r\nContent-Length: "
+                    + body.length + "\r\nConnection: close\r\n\r\n";
+            try {
+                session.writeBuffer().write(head.getBytes(Charset.UTF_8));
+                session.writeBuffer().write(body);
+            } catch (IOException e) {
+                Logger.warn(e, "metrics output failed");
+            }
+            session.close(false);
+        };
+        AioQuickServer server = new AioQuickServer(port, protocol, processor);
+        server.setThreadNum(2).start();
+        this.endpoint = server;
+        return server;
+    }
+
+    /**
+     * 停止统计数据输出服务
+     */
+    public synchronized void shutdown() {
+        if (endpoint != null) {
+            endpoint.shutdown();
+            endpoint = null;
+        }
+    }
+
+    /**
+     * 清空服务级及分组级统计数据, 在线连接数除外
+     */
+    public void reset() {
+        server.reset();
+        groups.values().forEach(Metrics::reset);
+    }
+
+    /**
+     * 服务级/分组级统计数据
+     */
+    public static final class Metrics {
+
+        private final LongAdder online = new LongAdder();
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder inBytes = new LongAdder();
+        private final LongAdder outBytes = new LongAdder();
+        private final LatencyHistogram decodeTime = new LatencyHistogram();
+        private final LatencyHistogram processTime = new LatencyHistogram();
+        private final LatencyHistogram writeQueueDepth = new LatencyHistogram();
+        private final LatencyHistogram flushTime = new LatencyHistogram();
+
+        public long getOnline() {
+            return online.sum();
+        }
+
+        public long getMessages() {
+            return messages.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getInBytes() {
+            return inBytes.sum();
+        }
+
+        public long getOutBytes() {
+            return outBytes.sum();
+        }
+
+        /**
+         * @return 解码耗时(纳秒)
+         */
+        public LatencyHistogram decodeTime() {
+            return decodeTime;
+        }
+
+        /**
+         * @return 消息处理耗时(纳秒)
+         */
+        public LatencyHistogram processTime() {
+            return processTime;
+        }
+
+        /**
+         * @return 每次输出时写缓冲中排队的内存块数量
+         */
+        public LatencyHistogram writeQueueDepth() {
+            return writeQueueDepth;
+        }
+
+        /**
+         * @return 单次写出操作的耗时(纳秒)
+         */
+        public LatencyHistogram flushTime() {
+            return flushTime;
+        }
+
+        void reset() {
+            messages.reset();
+            failures.reset();
+            inBytes.reset();
+            outBytes.reset();
+            decodeTime.reset();
+            processTime.reset();
+            writeQueueDepth.reset();
+            flushTime.reset();
+        }
+
+        void render(StringBuilder builder, String prefix) {
+            builder.append(prefix).append(".online ").append(getOnline()).append('\n');
+            builder.append(prefix).append(".messages ").append(getMessages()).append('\n');
+            builder.append(prefix).append(".failures ").append(getFailures()).append('\n');
+            builder.append(prefix).append(".in_bytes ").append(getInBytes()).append('\n');
+            builder.append(prefix).append(".out_bytes ").append(getOutBytes()).append('\n');
+            render(builder, prefix + ".decode_ns", decodeTime.snapshot());
+            render(builder, prefix + ".process_ns", processTime.snapshot());
+            render(builder, prefix + ".write_queue_depth", writeQueueDepth.snapshot());
+            render(builder, prefix + ".flush_ns", flushTime.snapshot());
+        }
+
+        private static void render(StringBuilder builder, String name, LatencyHistogram.Snapshot snapshot) {
+            builder.append(name).append(".count ").append(snapshot.count()).append('\n');
+            builder.append(name).append(".mean ").append((long) snapshot.mean()).append('\n');
+            builder.append(name).append(".p50 ").append(snapshot.p50()).append('\n');
+            builder.append(name).append(".p90 ").append(snapshot.p90()).append('\n');
+            builder.append(name).append(".p99 ").append(snapshot.p99()).append('\n');
+            builder.append(name).append(".p999 ").append(snapshot.p999()).append('\n');
+            builder.append(name).append(".max ").append(snapshot.max()).append('\n');
+        }
+
+    }
+
+    /**
+     * 会话级统计数据
+     */
+    public static final class SessionMetrics {
+
+        private final Metrics server;
+        private final Metrics group;
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder inBytes = new LongAdder();
+        private final LongAdder outBytes = new LongAdder();
+        /**
+         * 处理开始时间, preProcess与afterProcess在同一线程中执行
+         */
+        private long processStart;
+        /**
+         * 写出开始时间, 写回调可能由其他线程执行
+         */
+        private volatile long writeStart;
+
+        SessionMetrics(Metrics server, Metrics group) {
+            this.server = server;
+            this.group = group;
+        }
+
+        public long getMessages() {
+            return messages.sum();
+        }
+
+        public long getInBytes() {
+            return inBytes.sum();
+        }
+
+        public long getOutBytes() {
+            return outBytes.sum();
+        }
+
+        private void forEach(Consumer<Metrics> consumer) {
+            consumer.accept(server);
+            if (group != null) {
+                consumer.accept(group);
+            }
+        }
+
+        private void record(long value, Function<Metrics, LatencyHistogram> histogram) {
+            histogram.apply(server).record(value);
+            if (group != null) {
+                histogram.apply(group).record(value);
+            }
+        }
+
+    }
+
+}
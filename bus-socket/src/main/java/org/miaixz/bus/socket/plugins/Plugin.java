@@ -49,6 +49,16 @@ public interface Plugin<T> extends NetMonitor {
      */
     boolean preProcess(AioSession session, T t);
 
+    /**
+     * 消息经MessageProcessor处理完毕后回调, 仅在所有插件的preProcess均返回true时触发
+     *
+     * @param session 会话
+     * @param t       对象
+     */
+    default void afterProcess(AioSession session, T t) {
+
+    }
+
     /**
      * 监听状态机事件
      *
@@ -91,7 +91,13 @@ public abstract class AbstractMessageProcessor<T> implements MessageProcessor<T>
             }
         }
         if (flag) {
-            process0(session, msg);
+            try {
+                process0(session, msg);
+            } finally {
+                for (Plugin<T> plugin : plugins) {
+                    plugin.afterProcess(session, msg);
+                }
+            }
         }
     }
 
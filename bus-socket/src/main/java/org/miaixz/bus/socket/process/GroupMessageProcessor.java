@@ -25,22 +25,34 @@
  ********************************************************************************/
 package org.miaixz.bus.socket.process;
 
+import org.miaixz.bus.logger.Logger;
 import org.miaixz.bus.socket.AioSession;
 import org.miaixz.bus.socket.GroupIo;
+import org.miaixz.bus.socket.buffers.SharedBuffer;
 
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * 群组消息处理器
+ * 群组成员基于并发集合维护; {@link #writeToGroup(String, byte[])}在写队列已满时阻塞等待,
+ * {@link #writeToGroup(String, SharedBuffer)}仅编码一次、各会话的写队列共享同一份数据, 写队列已满的慢速会话将跳过本次消息,
+ * 跳过次数见{@link #getDroppedCount()}, 可通过{@link #onSlowConsumer(String, AioSession)}定制处理策略
+ *
  * @author Kimi Liu
  * @since Java 17+
  */
 public abstract class GroupMessageProcessor<T> implements MessageProcessor<T>, GroupIo {
 
-    private Map<String, GroupUnit> sessionGroup = new ConcurrentHashMap<>();
+    private final Map<String, Set<AioSession>> sessionGroup = new ConcurrentHashMap<>();
+
+    /**
+     * 因写队列已满而跳过的消息数
+     */
+    private final LongAdder droppedCount = new LongAdder();
 
     /**
      * 将AioSession加入群组group
@@ -49,25 +61,22 @@ public abstract class GroupMessageProcessor<T> implements MessageProcessor<T>, G
      * @param session 会话
      */
     @Override
-    public final synchronized void join(String group, AioSession session) {
-        GroupUnit groupUnit = sessionGroup.get(group);
-        if (null == groupUnit) {
-            groupUnit = new GroupUnit();
-            sessionGroup.put(group, groupUnit);
-        }
-        groupUnit.groupList.add(session);
+    public final void join(String group, AioSession session) {
+        sessionGroup.compute(group, (key, sessions) -> {
+            if (null == sessions) {
+                sessions = ConcurrentHashMap.newKeySet();
+            }
+            sessions.add(session);
+            return sessions;
+        });
     }
 
     @Override
-    public final synchronized void remove(String group, AioSession session) {
-        GroupUnit groupUnit = sessionGroup.get(group);
-        if (null == groupUnit) {
-            return;
-        }
-        groupUnit.groupList.remove(session);
-        if (groupUnit.groupList.isEmpty()) {
-            sessionGroup.remove(group);
-        }
+    public final void remove(String group, AioSession session) {
+        sessionGroup.computeIfPresent(group, (key, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
     }
 
     @Override
@@ -79,18 +88,80 @@ public abstract class GroupMessageProcessor<T> implements MessageProcessor<T>, G
 
     @Override
     public void writeToGroup(String group, byte[] t) {
-        GroupUnit groupUnit = sessionGroup.get(group);
-        for (AioSession aioSession : groupUnit.groupList) {
+        Set<AioSession> sessions = sessionGroup.get(group);
+        if (null == sessions) {
+            return;
+        }
+        for (AioSession session : sessions) {
+            if (session.isInvalid()) {
+                remove(group, session);
+                continue;
+            }
             try {
-                aioSession.writeBuffer().write(t);
-            } catch (IOException e) {
-                e.printStackTrace();
+                session.writeBuffer().write(t);
+                session.writeBuffer().flush();
+            } catch (IOException | RuntimeException e) {
+                // 会话已关闭
+                remove(group, session);
+            }
+        }
+    }
+
+    /**
+     * 群发共享数据, 完成后释放调用方持有的引用
+     *
+     * @param group  群组信息
+     * @param shared 共享数据
+     * @return 成功加入写队列的会话数
+     */
+    @Override
+    public int writeToGroup(String group, SharedBuffer shared) {
+        int count = 0;
+        try {
+            Set<AioSession> sessions = sessionGroup.get(group);
+            if (null == sessions) {
+                return 0;
+            }
+            for (AioSession session : sessions) {
+                if (session.isInvalid()) {
+                    remove(group, session);
+                } else if (session.writeBuffer().offer(shared)) {
+                    try {
+                        session.writeBuffer().flush();
+                        count++;
+                    } catch (RuntimeException e) {
+                        // 会话已关闭, 视图随写队列一同释放
+                        remove(group, session);
+                    }
+                } else {
+                    droppedCount.increment();
+                    onSlowConsumer(group, session);
+                }
             }
+        } finally {
+            shared.release();
         }
+        return count;
+    }
+
+    /**
+     * 因写队列已满而跳过的消息数
+     *
+     * @return 跳过次数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
     }
 
-    private class GroupUnit {
-        Set<AioSession> groupList = new HashSet<>();
+    /**
+     * 会话写队列已满, 本次消息被跳过
+     * 默认记录日志, 子类可在此断开会话
+     *
+     * @param group   群组信息
+     * @param session 慢速会话
+     */
+    protected void onSlowConsumer(String group, AioSession session) {
+        Logger.warn("group {} message dropped, write queue of session {} is full", group, session.getSessionID());
     }
 
 }
@@ -0,0 +1,238 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.process;
+
+import org.miaixz.bus.socket.AioSession;
+import org.miaixz.bus.socket.NetMonitor;
+import org.miaixz.bus.socket.SocketStatus;
+import org.miaixz.bus.socket.TcpAioSession;
+
+import java.nio.channels.AsynchronousSocketChannel;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程消息处理器
+ * 解码后的消息按会话排队, 由虚拟线程依次交给被代理的处理器执行, 同一会话内的消息保持顺序,
+ * 业务中的阻塞调用(JDBC、远程调用等)不再占用IO线程。
+ * 会话排队的消息数达到上限时暂停读取, 回落至一半时恢复
+ *
+ * @param <T> 消息对象实体类型
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public class VirtualThreadMessageProcessor<T> implements MessageProcessor<T>, NetMonitor {
+
+    /**
+     * 默认每个会话允许排队的消息数
+     */
+    public static final int DEFAULT_MAX_PENDING = 64;
+
+    private final MessageProcessor<T> processor;
+    /**
+     * 被代理处理器的监听器
+     */
+    private final NetMonitor monitor;
+    /**
+     * 每个会话允许排队的消息数
+     */
+    private final int maxPending;
+    private final ThreadFactory threadFactory = Thread.ofVirtual().name("bus-socket:virtual-", 0).factory();
+    private final Map<AioSession, SessionQueue> queues = new ConcurrentHashMap<>();
+
+    public VirtualThreadMessageProcessor(MessageProcessor<T> processor) {
+        this(processor, DEFAULT_MAX_PENDING);
+    }
+
+    public VirtualThreadMessageProcessor(MessageProcessor<T> processor, int maxPending) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending must be a positive integer: " + maxPending);
+        }
+        this.processor = processor;
+        this.monitor = processor instanceof NetMonitor ? (NetMonitor) processor : null;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * @return 被代理的处理器
+     */
+    public MessageProcessor<T> getProcessor() {
+        return processor;
+    }
+
+    /**
+     * @return 每个会话允许排队的消息数
+     */
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    @Override
+    public void process(AioSession session, T msg) {
+        SessionQueue queue = queues.computeIfAbsent(session, SessionQueue::new);
+        boolean start;
+        synchronized (queue) {
+            queue.messages.offer(msg);
+            // 仅TCP会话支持暂停读取
+            if (!queue.paused && queue.messages.size() >= maxPending && session instanceof TcpAioSession) {
+                queue.paused = true;
+                session.awaitRead();
+            }
+            start = !queue.running;
+            queue.running = true;
+        }
+        if (start) {
+            threadFactory.newThread(queue).start();
+        }
+    }
+
+    /**
+     * 会话输入端关闭(EOF)时由会话调用, 若该会话仍有排队或正在处理的消息, 由消费线程处理完后再关闭会话,
+     * 以免响应尚未写出会话即被关闭
+     *
+     * @param session 会话
+     * @return true:已交由消费线程关闭, false:没有待处理的消息, 由调用方立即关闭
+     */
+    public boolean closeAfterDrained(AioSession session) {
+        SessionQueue queue = queues.get(session);
+        if (queue == null) {
+            return false;
+        }
+        synchronized (queue) {
+            if (!queue.running) {
+                return false;
+            }
+            queue.closeAfterDrained = true;
+            return true;
+        }
+    }
+
+    @Override
+    public void stateEvent(AioSession session, SocketStatus socketStatus, Throwable throwable) {
+        if (socketStatus == SocketStatus.SESSION_CLOSED) {
+            queues.remove(session);
+        }
+        processor.stateEvent(session, socketStatus, throwable);
+    }
+
+    @Override
+    public AsynchronousSocketChannel shouldAccept(AsynchronousSocketChannel channel) {
+        return monitor == null ? channel : monitor.shouldAccept(channel);
+    }
+
+    @Override
+    public void afterRead(AioSession session, int readSize) {
+        if (monitor != null) {
+            monitor.afterRead(session, readSize);
+        }
+    }
+
+    @Override
+    public void beforeRead(AioSession session) {
+        if (monitor != null) {
+            monitor.beforeRead(session);
+        }
+    }
+
+    @Override
+    public void afterWrite(AioSession session, int writeSize) {
+        if (monitor != null) {
+            monitor.afterWrite(session, writeSize);
+        }
+    }
+
+    @Override
+    public void beforeWrite(AioSession session) {
+        if (monitor != null) {
+            monitor.beforeWrite(session);
+        }
+    }
+
+    /**
+     * 会话的消息队列, 同一时刻至多由一个虚拟线程消费
+     */
+    private class SessionQueue implements Runnable {
+
+        private final AioSession session;
+        private final Queue<T> messages = new ArrayDeque<>();
+        /**
+         * 是否有虚拟线程正在消费
+         */
+        private boolean running;
+        /**
+         * 是否已暂停读取
+         */
+        private boolean paused;
+        /**
+         * 输入端已关闭, 消息处理完后关闭会话
+         */
+        private boolean closeAfterDrained;
+
+        SessionQueue(AioSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void run() {
+            boolean close;
+            while (true) {
+                T msg;
+                boolean resume = false;
+                synchronized (this) {
+                    msg = messages.poll();
+                    if (msg == null) {
+                        running = false;
+                        close = closeAfterDrained;
+                        break;
+                    }
+                    if (paused && messages.size() <= maxPending >> 1) {
+                        paused = false;
+                        resume = true;
+                    }
+                }
+                if (resume) {
+                    // 恢复读取, 读缓冲中剩余的消息会在当前线程解码并入队
+                    session.signalRead();
+                }
+                try {
+                    processor.process(session, msg);
+                } catch (Throwable e) {
+                    // Error同样在此处理, 否则消费线程退出时running仍为true, 该会话不再被消费
+                    processor.stateEvent(session, SocketStatus.PROCESS_EXCEPTION, e);
+                }
+            }
+            if (close) {
+                session.close(false);
+            } else if (!session.isInvalid()) {
+                session.writeBuffer().flush();
+            }
+        }
+    }
+
+}
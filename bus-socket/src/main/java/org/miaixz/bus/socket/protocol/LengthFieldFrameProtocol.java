@@ -0,0 +1,134 @@
+/*********************************************************************************
+ *                                                                               *
+ * The MIT License (MIT)                                                         *
+ *                                                                               *
+ * Copyright (c) 2015-2024 miaixz.org and other contributors.                    *
+ *                                                                               *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy  *
+ * of this software and associated documentation files (the "Software"), to deal *
+ * in the Software without restriction, including without limitation the rights  *
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell     *
+ * copies of the Software, and to permit persons to whom the Software is         *
+ * furnished to do so, subject to the following conditions:                      *
+ *                                                                               *
+ * The above copyright notice and this permission notice shall be included in    *
+ * all copies or substantial portions of the Software.                           *
+ *                                                                               *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR    *
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,      *
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE   *
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER        *
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, *
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN     *
+ * THE SOFTWARE.                                                                 *
+ *                                                                               *
+ ********************************************************************************/
+package org.miaixz.bus.socket.protocol;
+
+import org.miaixz.bus.socket.AioSession;
+import org.miaixz.bus.socket.Protocol;
+import org.miaixz.bus.socket.buffers.BufferPool;
+import org.miaixz.bus.socket.convert.LengthFieldFrameDecoder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于长度字段的协议
+ * 完整位于读缓冲区内的帧直接以读缓冲区的只读视图输出;
+ * 超出读缓冲区容量的帧由{@link LengthFieldFrameDecoder}按块累积至内存池, 以各内存块的只读视图输出, 均不产生拷贝
+ *
+ * @author Kimi Liu
+ * @since Java 17+
+ */
+public abstract class LengthFieldFrameProtocol<T> implements Protocol<T> {
+
+    private final BufferPool bufferPool;
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final ByteOrder byteOrder;
+    private final int lengthAdjustment;
+    private final int maxFrameLength;
+    /**
+     * 各会话的解码器
+     */
+    private final Map<AioSession, LengthFieldFrameDecoder> decoderMap = new ConcurrentHashMap<>();
+    private volatile long lastClearTime = System.currentTimeMillis();
+
+    /**
+     * @param bufferPool        累积大消息所用的内存池, 可与服务共用
+     * @param lengthFieldOffset 长度字段的偏移量
+     * @param lengthFieldLength 长度字段占用的字节数: 1,2,3,4,8
+     * @param byteOrder         长度字段的字节序
+     * @param lengthAdjustment  帧长度修正值, 长度字段值 + lengthAdjustment 即为消息头之后的数据长度
+     * @param maxFrameLength    允许的最大帧长度
+     */
+    public LengthFieldFrameProtocol(BufferPool bufferPool, int lengthFieldOffset, int lengthFieldLength, ByteOrder byteOrder, int lengthAdjustment, int maxFrameLength) {
+        this.bufferPool = bufferPool;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.byteOrder = byteOrder;
+        this.lengthAdjustment = lengthAdjustment;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * 4字节大端长度字段位于消息头部, 其值为消息体长度
+     *
+     * @param bufferPool     内存池
+     * @param maxFrameLength 允许的最大帧长度
+     */
+    public LengthFieldFrameProtocol(BufferPool bufferPool, int maxFrameLength) {
+        this(bufferPool, 0, Integer.BYTES, ByteOrder.BIG_ENDIAN, 0, maxFrameLength);
+    }
+
+    @Override
+    public final T decode(ByteBuffer readBuffer, AioSession session) {
+        long now = System.currentTimeMillis();
+        if (now - lastClearTime > 5000) {
+            lastClearTime = now;
+            decoderMap.entrySet().removeIf(entry -> {
+                if (entry.getKey().isInvalid()) {
+                    entry.getValue().reset();
+                    return true;
+                }
+                return false;
+            });
+        }
+        LengthFieldFrameDecoder decoder = decoderMap.computeIfAbsent(session, key -> new LengthFieldFrameDecoder(bufferPool.allocateBufferPage(), lengthFieldOffset, lengthFieldLength, byteOrder, lengthAdjustment, maxFrameLength));
+        if (!decoder.isDecoding()) {
+            int frameLength = decoder.frameLength(readBuffer);
+            // 半包
+            if (frameLength < 0 || (frameLength > readBuffer.remaining() && frameLength <= readBuffer.capacity())) {
+                return null;
+            }
+            if (frameLength <= readBuffer.remaining()) {
+                ByteBuffer frame = readBuffer.slice(readBuffer.position(), frameLength).asReadOnlyBuffer();
+                readBuffer.position(readBuffer.position() + frameLength);
+                return decode(new ByteBuffer[]{frame}, session);
+            }
+            // 消息长度超过读缓冲区容量, 转由解码器累积
+        }
+        if (!decoder.decode(readBuffer)) {
+            return null;
+        }
+        try {
+            return decode(decoder.getBuffers(), session);
+        } finally {
+            decoder.reset();
+        }
+    }
+
+    /**
+     * 解析完整的帧
+     * 帧数据为只读视图, 仅在本方法执行期间有效, 需在方法返回前完成解析或自行拷贝
+     *
+     * @param frame   帧数据, 包含消息头; 帧超出读缓冲区容量时由多个内存块组成
+     * @param session 会话
+     * @return 业务消息
+     */
+    protected abstract T decode(ByteBuffer[] frame, AioSession session);
+
+}